@@ -0,0 +1,133 @@
+package com.vector;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// the same kernels on the incubating Vector API. this source root is compiled on its own, after src
+// and only where the module exists, so src builds with a plain javac:
+//     javac -d out $(find src -name '*.java')
+//     javac --add-modules jdk.incubator.vector -cp out -d out $(find src-vector -name '*.java')
+// only touched through ColumnKernels.best(), which loads it by name when the class was built and the
+// JVM runs with --add-modules jdk.incubator.vector, and falls back to ScalarIntKernels otherwise.
+// int lanes are widened to long lanes before adding so sums cannot overflow
+class VectorIntKernels implements IntKernels {
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final IntKernels SCALAR = new ScalarIntKernels();
+
+    @Override
+    public long sum(int[] values) {
+        LongVector acc0 = LongVector.zero(LONGS);
+        LongVector acc1 = LongVector.zero(LONGS);
+        int i = 0;
+        int bound = INTS.loopBound(values.length);
+        for (; i < bound; i += INTS.length()) {
+            IntVector v = IntVector.fromArray(INTS, values, i);
+            acc0 = acc0.add(v.convertShape(VectorOperators.I2L, LONGS, 0));
+            acc1 = acc1.add(v.convertShape(VectorOperators.I2L, LONGS, 1));
+        }
+        long sum = acc0.add(acc1).reduceLanes(VectorOperators.ADD);
+        for (; i < values.length; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public int min(int[] values) {
+        ScalarIntKernels.requireNotEmpty(values);
+        IntVector acc = IntVector.broadcast(INTS, Integer.MAX_VALUE);
+        int i = 0;
+        int bound = INTS.loopBound(values.length);
+        for (; i < bound; i += INTS.length()) {
+            acc = acc.min(IntVector.fromArray(INTS, values, i));
+        }
+        int min = acc.reduceLanes(VectorOperators.MIN);
+        for (; i < values.length; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public int max(int[] values) {
+        ScalarIntKernels.requireNotEmpty(values);
+        IntVector acc = IntVector.broadcast(INTS, Integer.MIN_VALUE);
+        int i = 0;
+        int bound = INTS.loopBound(values.length);
+        for (; i < bound; i += INTS.length()) {
+            acc = acc.max(IntVector.fromArray(INTS, values, i));
+        }
+        int max = acc.reduceLanes(VectorOperators.MAX);
+        for (; i < values.length; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    @Override
+    public long filteredSum(int[] values, int[] filter, int low, int high) {
+        ScalarIntKernels.requireSameLength(values, filter);
+        LongVector acc0 = LongVector.zero(LONGS);
+        LongVector acc1 = LongVector.zero(LONGS);
+        IntVector zero = IntVector.zero(INTS);
+        int i = 0;
+        int bound = INTS.loopBound(values.length);
+        for (; i < bound; i += INTS.length()) {
+            IntVector f = IntVector.fromArray(INTS, filter, i);
+            VectorMask<Integer> match = f.compare(VectorOperators.GE, low).and(f.compare(VectorOperators.LE, high));
+            IntVector v = zero.blend(IntVector.fromArray(INTS, values, i), match);
+            acc0 = acc0.add(v.convertShape(VectorOperators.I2L, LONGS, 0));
+            acc1 = acc1.add(v.convertShape(VectorOperators.I2L, LONGS, 1));
+        }
+        long sum = acc0.add(acc1).reduceLanes(VectorOperators.ADD);
+        for (; i < values.length; i++) {
+            if (filter[i] >= low && filter[i] <= high) {
+                sum += values[i];
+            }
+        }
+        return sum;
+    }
+
+    // counting is a scatter, which the Vector API cannot do, so only the bucket numbers are computed
+    // a vector at a time. that only pays off when the division is a shift, other widths use the scalar loop
+    @Override
+    public void histogram(int[] values, int origin, int bucketWidth, long[] counts) {
+        ScalarIntKernels.requirePositive(bucketWidth);
+        if (Integer.bitCount(bucketWidth) != 1) {
+            SCALAR.histogram(values, origin, bucketWidth, counts);
+            return;
+        }
+        int shift = Integer.numberOfTrailingZeros(bucketWidth);
+        int[] buckets = new int[INTS.length()];
+        int i = 0;
+        int bound = INTS.loopBound(values.length);
+        for (; i < bound; i += INTS.length()) {
+            IntVector v = IntVector.fromArray(INTS, values, i);
+            // value - origin may not fit an int, but read as unsigned it is still right, hence LSHR
+            v.sub(origin)
+                    .lanewise(VectorOperators.LSHR, shift)
+                    .blend(-1, v.compare(VectorOperators.LT, origin))
+                    .intoArray(buckets, 0);
+            for (int bucket : buckets) {
+                if (bucket >= 0 && bucket < counts.length) {
+                    counts[bucket]++;
+                }
+            }
+        }
+        for (; i < values.length; i++) {
+            long bucket = ((long) values[i] - origin) >> shift;
+            if (bucket >= 0 && bucket < counts.length) {
+                counts[(int) bucket]++;
+            }
+        }
+    }
+
+    @Override
+    public String name() {
+        return "vector (" + INTS.vectorBitSize() + " bit)";
+    }
+}
@@ -0,0 +1,259 @@
+package com.collection.adaptive;
+
+import com.java8.Item;
+import com.sun.management.ThreadMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+// records three workloads as operation traces and replays each one against the static choices
+// from the demos and against the adaptive wrappers, best of three runs:
+//   work list:   a 50_000 element list used as a queue (add at the tail, remove at the head),
+//                then read by random index
+//   lookups:     a 100_000 element set hit with contains, then with range queries
+//   small maps:  200_000 maps of 5 entries each (think per-order attributes), filled and read
+// before timing anything it checks that migrations never change what the collections hold or
+// what their iterators see
+// usage: java com.collection.adaptive.AdaptiveCollectionsBenchmark
+public class AdaptiveCollectionsBenchmark {
+    private static final int ADD = 0;
+    private static final int REMOVE_FIRST = 1;
+    private static final int GET = 2;
+    private static final int CONTAINS = 3;
+    private static final int RANGE = 4;
+
+    private static final int RUNS = 3;
+    private static long sink;
+
+    public static void main(String[] args) {
+        migrationCheck();
+
+        Trace workList = workListTrace();
+        System.out.println("work list: queue phase then random reads");
+        replayList("ArrayList", ArrayList::new, workList);
+        replayList("LinkedList", LinkedList::new, workList);
+        replayList("AdaptiveList", AdaptiveList::new, workList);
+
+        Trace lookups = lookupTrace();
+        System.out.println("lookups: contains phase then range phase");
+        replaySet("HashSet", HashSet::new, lookups);
+        replaySet("TreeSet", TreeSet::new, lookups);
+        replaySet("AdaptiveSet", AdaptiveSet::new, lookups);
+
+        System.out.println("small maps: 200_000 maps of 5 entries, 20 reads each");
+        smallMaps("HashMap", HashMap::new);
+        smallMaps("TreeMap", TreeMap::new);
+        smallMaps("AdaptiveMap", AdaptiveMap::new);
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+
+    private static final class Trace {
+        private final int initialSize;
+        private final int[] ops;
+        private final int[] args;
+
+        private Trace(int initialSize, List<int[]> operations) {
+            this.initialSize = initialSize;
+            ops = new int[operations.size()];
+            args = new int[operations.size()];
+            for (int i = 0; i < ops.length; i++) {
+                ops[i] = operations.get(i)[0];
+                args[i] = operations.get(i)[1];
+            }
+        }
+    }
+
+    private static Trace workListTrace() {
+        Random random = new Random(1);
+        int size = 50_000;
+        List<int[]> operations = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            operations.add(new int[]{ADD, random.nextInt()});
+            operations.add(new int[]{REMOVE_FIRST, 0});
+        }
+        for (int i = 0; i < 20_000; i++) {
+            operations.add(new int[]{GET, random.nextInt(size)});
+        }
+        return new Trace(size, operations);
+    }
+
+    private static Trace lookupTrace() {
+        Random random = new Random(2);
+        int size = 100_000;
+        List<int[]> operations = new ArrayList<>();
+        for (int i = 0; i < 500_000; i++) {
+            operations.add(new int[]{CONTAINS, random.nextInt(2 * size)});
+        }
+        for (int i = 0; i < 2_000; i++) {
+            operations.add(new int[]{RANGE, random.nextInt(2 * size)});
+        }
+        return new Trace(size, operations);
+    }
+
+    private static void replayList(String name, Supplier<List<Integer>> factory, Trace trace) {
+        long best = Long.MAX_VALUE;
+        List<Integer> list = null;
+        for (int run = 0; run < RUNS; run++) {
+            list = factory.get();
+            for (int i = 0; i < trace.initialSize; i++) {
+                list.add(i);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < trace.ops.length; i++) {
+                switch (trace.ops[i]) {
+                    case ADD -> list.add(trace.args[i]);
+                    case REMOVE_FIRST -> sink += list.remove(0);
+                    case GET -> sink += list.get(trace.args[i]);
+                    default -> throw new IllegalStateException("not a list operation: " + trace.ops[i]);
+                }
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        report(name, best, list instanceof AdaptiveList
+                ? ((AdaptiveList<Integer>) list).getForm() + ", " + ((AdaptiveList<Integer>) list).getMigrations() + " migrations" : "");
+    }
+
+    private static void replaySet(String name, Supplier<Set<Integer>> factory, Trace trace) {
+        long best = Long.MAX_VALUE;
+        Set<Integer> set = null;
+        for (int run = 0; run < RUNS; run++) {
+            set = factory.get();
+            for (int i = 0; i < trace.initialSize; i++) {
+                set.add(2 * i);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < trace.ops.length; i++) {
+                int value = trace.args[i];
+                switch (trace.ops[i]) {
+                    case CONTAINS -> sink += set.contains(value) ? 1 : 0;
+                    case RANGE -> sink += range(set, value, value + 200);
+                    default -> throw new IllegalStateException("not a set operation: " + trace.ops[i]);
+                }
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        report(name, best, set instanceof AdaptiveSet
+                ? ((AdaptiveSet<Integer>) set).getForm() + ", " + ((AdaptiveSet<Integer>) set).getMigrations() + " migrations" : "");
+    }
+
+    // what a caller stuck with a plain HashSet has to do for a range: scan, collect and sort
+    private static int range(Set<Integer> set, int from, int to) {
+        if (set instanceof AdaptiveSet) {
+            return ((AdaptiveSet<Integer>) set).range(from, to).size();
+        }
+        if (set instanceof NavigableSet) {
+            return new ArrayList<>(((NavigableSet<Integer>) set).subSet(from, true, to, false)).size();
+        }
+        List<Integer> matches = new ArrayList<>();
+        for (Integer value : set) {
+            if (value >= from && value < to) {
+                matches.add(value);
+            }
+        }
+        matches.sort(null);
+        return matches.size();
+    }
+
+    private static void smallMaps(String name, Supplier<Map<String, Integer>> factory) {
+        String[] keys = {"id", "customer", "items", "total", "status"};
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long best = Long.MAX_VALUE;
+        long bytes = 0;
+        for (int run = 0; run < RUNS; run++) {
+            List<Map<String, Integer>> maps = new ArrayList<>(200_000);
+            long allocated = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            for (int i = 0; i < 200_000; i++) {
+                Map<String, Integer> map = factory.get();
+                for (int k = 0; k < keys.length; k++) {
+                    map.put(keys[k], k);
+                }
+                maps.add(map);
+            }
+            bytes = threads.getThreadAllocatedBytes(threadId) - allocated;
+            for (int read = 0; read < 20; read++) {
+                String key = keys[read % keys.length];
+                for (Map<String, Integer> map : maps) {
+                    sink += map.get(key);
+                }
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        report(name, best, String.format("%d bytes allocated per map", bytes / 200_000));
+    }
+
+    // a price-only comparator, like CustomProductComparator in the TreeSet demo, calls different items
+    // equal. the sorted form must not drop them, nulls must keep working after range reads, and an
+    // iterator must see the current elements after a get() moved the list to another backing
+    private static void migrationCheck() {
+        Comparator<Item> byPrice = Comparator.comparingInt(Item::getPrice);
+        AdaptiveSet<Item> items = new AdaptiveSet<>(byPrice);
+        AdaptiveMap<Item, Integer> quantities = new AdaptiveMap<>(byPrice);
+        for (int i = 0; i < 2000; i++) {
+            Item item = new Item(i, "Item" + i, i % 5);
+            items.add(item);
+            quantities.put(item, i);
+        }
+        for (int i = 0; i < 10 * OperationMix.WINDOW; i++) {
+            items.first();
+            quantities.range(new Item(0, "", 1), new Item(0, "", 3));
+        }
+        check(items.size() == 2000 && quantities.size() == 2000 && new HashMap<>(quantities).containsValue(1999),
+                "price-only comparator dropped elements: " + items.size() + " items, " + quantities.size() + " entries");
+
+        AdaptiveSet<Integer> withNull = new AdaptiveSet<>();
+        for (int i = 0; i < 100; i++) {
+            withNull.add(i);
+        }
+        withNull.add(null);
+        for (int i = 0; i < 10 * OperationMix.WINDOW; i++) {
+            withNull.range(10, 20);
+        }
+        check(withNull.contains(null) && withNull.add(-1) && withNull.remove(null) && withNull.size() == 101,
+                "null element stopped working in form " + withNull.getForm());
+
+        AdaptiveList<Integer> list = new AdaptiveList<>();
+        for (int i = 0; i < 2000; i++) {
+            list.add(i);
+        }
+        for (int i = 0; i < 10 * OperationMix.WINDOW; i++) {
+            list.add(0, i);
+            list.remove(0);
+        }
+        AdaptiveList.Form before = list.getForm();
+        Iterator<Integer> iterator = list.iterator();
+        for (int i = 0; i < 10 * OperationMix.WINDOW; i++) {
+            sink += list.get(i % list.size());
+        }
+        list.set(0, -1);
+        check(before != list.getForm() && iterator.next() == -1,
+                "iterator did not follow the migration from " + before + " to " + list.getForm());
+        System.out.println("migration checks passed");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    private static void report(String name, long nanos, String detail) {
+        System.out.printf("  %-13s %7.1f ms  %s%n", name, nanos / 1e6, detail);
+    }
+}
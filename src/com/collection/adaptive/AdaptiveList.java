@@ -0,0 +1,324 @@
+package com.collection.adaptive;
+
+import com.collection.list.UnrolledLinkedList;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+// a List that watches how it is used and moves its elements to whichever of ArrayList and
+// UnrolledLinkedList suits the last window of operations: random get/set and appends favour the
+// array, inserts and removes at the head or in the middle favour the unrolled list.
+// starts as an ArrayList with room for 4, which is already the compact form for small lists.
+// a migration counts in modCount, iterators and sublists read the current backing by index and
+// only fail on structural changes, so a get() that migrates the list does not break them
+public class AdaptiveList<E> extends AbstractList<E> {
+    public enum Form {ARRAY, UNROLLED}
+
+    private static final int GET = 0;
+    private static final int APPEND = 1;
+    private static final int HEAD = 2;
+    private static final int MIDDLE = 3;
+
+    private final OperationMix mix = new OperationMix(4);
+    private List<E> backing = new ArrayList<>(4);
+    private Form form = Form.ARRAY;
+    private int migrations;
+
+    public AdaptiveList() {
+    }
+
+    public AdaptiveList(Collection<? extends E> elements) {
+        backing.addAll(elements);
+    }
+
+    @Override
+    public int size() {
+        return backing.size();
+    }
+
+    @Override
+    public E get(int index) {
+        record(GET);
+        return backing.get(index);
+    }
+
+    @Override
+    public E set(int index, E element) {
+        record(GET);
+        return backing.set(index, element);
+    }
+
+    @Override
+    public boolean add(E element) {
+        record(APPEND);
+        modCount++;
+        return backing.add(element);
+    }
+
+    @Override
+    public void add(int index, E element) {
+        record(kindOf(index, backing.size()));
+        modCount++;
+        backing.add(index, element);
+    }
+
+    @Override
+    public E remove(int index) {
+        record(kindOf(index, backing.size() - 1));
+        modCount++;
+        return backing.remove(index);
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return backing.indexOf(o);
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return backing.lastIndexOf(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return backing.contains(o);
+    }
+
+    @Override
+    public void clear() {
+        backing.clear();
+        modCount++;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr(0);
+    }
+
+    @Override
+    public ListIterator<E> listIterator() {
+        return new Itr(0);
+    }
+
+    @Override
+    public ListIterator<E> listIterator(int index) {
+        if (index < 0 || index > backing.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + backing.size());
+        }
+        return new Itr(index);
+    }
+
+    @Override
+    public List<E> subList(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > backing.size() || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex + ", size: " + backing.size());
+        }
+        return new SubList(fromIndex, toIndex - fromIndex);
+    }
+
+    public Form getForm() {
+        return form;
+    }
+
+    public int getMigrations() {
+        return migrations;
+    }
+
+    private static int kindOf(int index, int last) {
+        if (index == 0 && last > 0) {
+            return HEAD;
+        }
+        return index >= last ? APPEND : MIDDLE;
+    }
+
+    private void record(int kind) {
+        if (mix.record(kind)) {
+            adapt();
+            mix.reset();
+        }
+    }
+
+    // rough ns per operation at this size, fitted to UnrolledListBenchmark
+    private void adapt() {
+        int size = backing.size();
+        int shifting = mix.count(HEAD) + mix.count(MIDDLE);
+        double array = mix.count(GET) + mix.count(APPEND) + shifting * (0.067 * size + 1);
+        double unrolled = mix.count(GET) * (0.01 * size + 2) + mix.count(APPEND) + mix.count(HEAD) * 2
+                + mix.count(MIDDLE) * (0.027 * size + 20);
+        if (form == Form.ARRAY && OperationMix.worthMigrating(array, unrolled, size)) {
+            migrate(Form.UNROLLED, new UnrolledLinkedList<>(backing));
+        } else if (form == Form.UNROLLED && OperationMix.worthMigrating(unrolled, array, size)) {
+            migrate(Form.ARRAY, new ArrayList<>(backing));
+        }
+    }
+
+    private void migrate(Form to, List<E> copy) {
+        backing = copy;
+        form = to;
+        migrations++;
+        modCount++;
+    }
+
+    // modCount without the migrations, what iterators and sublists check
+    private int structuralMods() {
+        return modCount - migrations;
+    }
+
+    // reads the backing directly, so walking the list neither counts as get() traffic nor migrates it
+    private final class Itr implements ListIterator<E> {
+        private int cursor;
+        private int lastReturned = -1;
+        private int expectedMods = structuralMods();
+
+        private Itr(int index) {
+            cursor = index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < backing.size();
+        }
+
+        @Override
+        public E next() {
+            checkForComodification();
+            if (cursor >= backing.size()) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = cursor;
+            return backing.get(cursor++);
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return cursor > 0;
+        }
+
+        @Override
+        public E previous() {
+            checkForComodification();
+            if (cursor <= 0) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = --cursor;
+            return backing.get(cursor);
+        }
+
+        @Override
+        public int nextIndex() {
+            return cursor;
+        }
+
+        @Override
+        public int previousIndex() {
+            return cursor - 1;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned < 0) {
+                throw new IllegalStateException();
+            }
+            checkForComodification();
+            AdaptiveList.this.remove(lastReturned);
+            cursor = lastReturned;
+            lastReturned = -1;
+            expectedMods = structuralMods();
+        }
+
+        @Override
+        public void set(E element) {
+            if (lastReturned < 0) {
+                throw new IllegalStateException();
+            }
+            checkForComodification();
+            AdaptiveList.this.set(lastReturned, element);
+        }
+
+        @Override
+        public void add(E element) {
+            checkForComodification();
+            AdaptiveList.this.add(cursor++, element);
+            lastReturned = -1;
+            expectedMods = structuralMods();
+        }
+
+        private void checkForComodification() {
+            if (structuralMods() != expectedMods) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    // a window on the list that goes through its get/set/add/remove, so it keeps feeding the
+    // operation mix and stays valid across migrations
+    private final class SubList extends AbstractList<E> {
+        private final int offset;
+        private int size;
+        private int expectedMods = structuralMods();
+
+        private SubList(int offset, int size) {
+            this.offset = offset;
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            checkForComodification();
+            return size;
+        }
+
+        @Override
+        public E get(int index) {
+            checkIndex(index, size);
+            checkForComodification();
+            return AdaptiveList.this.get(offset + index);
+        }
+
+        @Override
+        public E set(int index, E element) {
+            checkIndex(index, size);
+            checkForComodification();
+            return AdaptiveList.this.set(offset + index, element);
+        }
+
+        @Override
+        public void add(int index, E element) {
+            checkIndex(index, size + 1);
+            checkForComodification();
+            AdaptiveList.this.add(offset + index, element);
+            expectedMods = structuralMods();
+            size++;
+            modCount++;
+        }
+
+        @Override
+        public E remove(int index) {
+            checkIndex(index, size);
+            checkForComodification();
+            E removed = AdaptiveList.this.remove(offset + index);
+            expectedMods = structuralMods();
+            size--;
+            modCount++;
+            return removed;
+        }
+
+        private void checkIndex(int index, int limit) {
+            if (index < 0 || index >= limit) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+        }
+
+        private void checkForComodification() {
+            if (structuralMods() != expectedMods) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package com.collection.adaptive;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+// the Map counterpart of AdaptiveSet: an ArrayMap up to 8 entries, then a HashMap for point
+// get/put/remove or a TreeMap once firstKey/lastKey/range queries dominate. keys follow the same
+// rules as AdaptiveSet elements, a key the TreeMap cannot tell apart from the others sends the map
+// back to a HashMap for good
+public class AdaptiveMap<K, V> extends AbstractMap<K, V> {
+    public enum Form {SMALL, HASH, SORTED}
+
+    static final int SMALL_LIMIT = 8;
+
+    private static final int POINT = 0;
+    private static final int RANGE = 1;
+
+    private final Comparator<? super K> comparator;
+    private final OperationMix mix = new OperationMix(2);
+    private Map<K, V> backing = new ArrayMap<>();
+    private Form form = Form.SMALL;
+    private boolean sortable = true;
+    private int migrations;
+    private int modifications;
+
+    public AdaptiveMap() {
+        this((Comparator<? super K>) null);
+    }
+
+    public AdaptiveMap(Comparator<? super K> comparator) {
+        this.comparator = comparator;
+    }
+
+    public AdaptiveMap(Map<? extends K, ? extends V> entries) {
+        this();
+        putAll(entries);
+    }
+
+    @Override
+    public int size() {
+        return backing.size();
+    }
+
+    @Override
+    public V get(Object key) {
+        record(POINT);
+        if (form == Form.SORTED) {
+            Map.Entry<K, V> match = sortedMatch(key);
+            return match == null ? null : match.getValue();
+        }
+        return backing.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        record(POINT);
+        if (form == Form.SORTED) {
+            return sortedMatch(key) != null;
+        }
+        return backing.containsKey(key);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        record(POINT);
+        int size = backing.size();
+        V old = form == Form.SORTED ? putSorted(key, value) : backing.put(key, value);
+        if (backing.size() != size) {
+            modifications++;
+            if (form == Form.SMALL && backing.size() > SMALL_LIMIT) {
+                migrate(mix.count(RANGE) * 4 > mix.count(POINT) && sortable ? Form.SORTED : Form.HASH);
+            }
+        }
+        return old;
+    }
+
+    @Override
+    public V remove(Object key) {
+        record(POINT);
+        int size = backing.size();
+        V old;
+        if (form == Form.SORTED) {
+            Map.Entry<K, V> match = sortedMatch(key);
+            old = match == null ? null : backing.remove(match.getKey());
+        } else {
+            old = backing.remove(key);
+        }
+        if (backing.size() != size) {
+            modifications++;
+        }
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        backing = new ArrayMap<>();
+        form = Form.SMALL;
+        modifications++;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public int size() {
+                return backing.size();
+            }
+
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                Map<K, V> owner = backing;
+                Iterator<Map.Entry<K, V>> entries = new MigrationAwareIterator<>(owner.entrySet().iterator(), owner,
+                        () -> backing, () -> modifications, () -> modifications++,
+                        entry -> AdaptiveMap.this.remove(entry.getKey()));
+                return new Iterator<Map.Entry<K, V>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<K, V> next() {
+                        return new Entry(entries.next(), owner);
+                    }
+
+                    @Override
+                    public void remove() {
+                        entries.remove();
+                    }
+                };
+            }
+        };
+    }
+
+    public K firstKey() {
+        record(RANGE);
+        if (backing.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        if (form == Form.SORTED) {
+            return ((TreeMap<K, V>) backing).firstKey();
+        }
+        K first = null;
+        boolean found = false;
+        for (K key : backing.keySet()) {
+            if (ordered(key) && (!found || compare(key, first) < 0)) {
+                first = key;
+                found = true;
+            }
+        }
+        if (!found) {
+            throw new NoSuchElementException();
+        }
+        return first;
+    }
+
+    public K lastKey() {
+        record(RANGE);
+        if (backing.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        if (form == Form.SORTED) {
+            return ((TreeMap<K, V>) backing).lastKey();
+        }
+        K last = null;
+        boolean found = false;
+        for (K key : backing.keySet()) {
+            if (ordered(key) && (!found || compare(key, last) > 0)) {
+                last = key;
+                found = true;
+            }
+        }
+        if (!found) {
+            throw new NoSuchElementException();
+        }
+        return last;
+    }
+
+    // the entries with keys in [from, to) in key order, as a copy. empty when from is not below to
+    public SortedMap<K, V> range(K from, K to) {
+        record(RANGE);
+        if (compare(from, to) >= 0) {
+            return new TreeMap<>(comparator);
+        }
+        if (form == Form.SORTED) {
+            return new TreeMap<>(((TreeMap<K, V>) backing).subMap(from, to));
+        }
+        SortedMap<K, V> matches = new TreeMap<>(comparator);
+        for (Map.Entry<K, V> entry : backing.entrySet()) {
+            if (ordered(entry.getKey()) && compare(entry.getKey(), from) >= 0 && compare(entry.getKey(), to) < 0) {
+                matches.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return matches;
+    }
+
+    public Form getForm() {
+        return form;
+    }
+
+    public int getMigrations() {
+        return migrations;
+    }
+
+    // same as AdaptiveSet, a null key without a comparator is left out of firstKey/lastKey/range
+    private boolean ordered(K key) {
+        return key != null || comparator != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(K a, K b) {
+        return comparator == null ? ((Comparable<? super K>) a).compareTo(b) : comparator.compare(a, b);
+    }
+
+    // the entry of the sorted backing whose key equals key, null if there is none or key cannot
+    // be compared with the keys at all
+    @SuppressWarnings("unchecked")
+    private Map.Entry<K, V> sortedMatch(Object key) {
+        try {
+            Map.Entry<K, V> candidate = ((TreeMap<K, V>) backing).ceilingEntry((K) key);
+            return candidate != null && compare(candidate.getKey(), (K) key) == 0 && candidate.getKey().equals(key)
+                    ? candidate : null;
+        } catch (ClassCastException | NullPointerException e) {
+            return null;
+        }
+    }
+
+    private V putSorted(K key, V value) {
+        if (sortedMatch(key) != null) {
+            return backing.put(key, value);
+        }
+        try {
+            Map.Entry<K, V> clash = ((TreeMap<K, V>) backing).ceilingEntry(key);
+            if (clash == null || compare(clash.getKey(), key) != 0) {
+                return backing.put(key, value);
+            }
+        } catch (ClassCastException | NullPointerException e) {
+            // fall through, the key cannot be sorted with the others
+        }
+        sortable = false;
+        migrate(Form.HASH);
+        return backing.put(key, value);
+    }
+
+    private void record(int kind) {
+        if (mix.record(kind)) {
+            adapt();
+            mix.reset();
+        }
+    }
+
+    // same cost model as AdaptiveSet
+    private void adapt() {
+        int size = backing.size();
+        if (size <= SMALL_LIMIT / 2) {
+            if (form != Form.SMALL) {
+                migrate(Form.SMALL);
+            }
+            return;
+        }
+        if (form == Form.SMALL) {
+            return;
+        }
+        double hash = mix.count(POINT) * 20 + mix.count(RANGE) * 2.0 * size;
+        double sorted = (mix.count(POINT) + mix.count(RANGE)) * (10 * OperationMix.log2(size) + 10);
+        if (form == Form.HASH && sortable && OperationMix.worthMigrating(hash, sorted, size)) {
+            migrate(Form.SORTED);
+        } else if (form == Form.SORTED && OperationMix.worthMigrating(sorted, hash, size)) {
+            migrate(Form.HASH);
+        }
+    }
+
+    private void migrate(Form to) {
+        Map<K, V> copy;
+        if (to == Form.SMALL) {
+            copy = new ArrayMap<>();
+            copy.putAll(backing);
+        } else if (to == Form.HASH) {
+            copy = new HashMap<>(backing);
+        } else {
+            copy = new TreeMap<>(comparator);
+            boolean complete;
+            try {
+                copy.putAll(backing);
+                // keys the comparator calls equal would be merged and lose a value
+                complete = copy.size() == backing.size();
+            } catch (ClassCastException | NullPointerException e) {
+                complete = false;
+            }
+            if (!complete) {
+                sortable = false;
+                if (form == Form.SMALL) {
+                    migrate(Form.HASH);
+                }
+                return;
+            }
+        }
+        backing = copy;
+        form = to;
+        migrations++;
+    }
+
+    // an entry of the backing the iterator walks. setValue goes to that backing and, once the map
+    // migrated, also to the current one so the write is not lost
+    private final class Entry extends BaseEntry<K, V> {
+        private final Map.Entry<K, V> entry;
+        private final Map<K, V> owner;
+
+        private Entry(Map.Entry<K, V> entry, Map<K, V> owner) {
+            this.entry = entry;
+            this.owner = owner;
+        }
+
+        @Override
+        public K getKey() {
+            return entry.getKey();
+        }
+
+        @Override
+        public V getValue() {
+            return entry.getValue();
+        }
+
+        @Override
+        public V setValue(V value) {
+            V old = entry.setValue(value);
+            if (backing != owner) {
+                backing.put(entry.getKey(), value);
+            }
+            return old;
+        }
+    }
+}
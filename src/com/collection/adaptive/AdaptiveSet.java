@@ -0,0 +1,279 @@
+package com.collection.adaptive;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+
+// a Set that picks its own backing: an ArraySet while it holds at most 8 elements, then a HashSet
+// for contains/add/remove traffic or a TreeSet once first/last/range queries dominate.
+// ordering uses the comparator, or natural ordering without one. equality is always equals(), in
+// every form: the set only goes sorted while the comparator tells all its elements apart, and it
+// drops back to a HashSet for good as soon as an element arrives that cannot be sorted with the
+// others (null, not comparable, or comparing equal to a different element). first/last/range only
+// see the elements the ordering covers. iteration order follows the backing
+public class AdaptiveSet<E> extends AbstractSet<E> {
+    public enum Form {SMALL, HASH, SORTED}
+
+    static final int SMALL_LIMIT = 8;
+
+    private static final int POINT = 0;
+    private static final int RANGE = 1;
+
+    private final Comparator<? super E> comparator;
+    private final OperationMix mix = new OperationMix(2);
+    private Set<E> backing = new ArraySet<>();
+    private Form form = Form.SMALL;
+    private boolean sortable = true;
+    private int migrations;
+    private int modifications;
+
+    public AdaptiveSet() {
+        this((Comparator<? super E>) null);
+    }
+
+    public AdaptiveSet(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    public AdaptiveSet(Collection<? extends E> elements) {
+        this();
+        addAll(elements);
+    }
+
+    @Override
+    public int size() {
+        return backing.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        record(POINT);
+        if (form == Form.SORTED) {
+            E match = sortedMatch(o);
+            return match != null && match.equals(o);
+        }
+        return backing.contains(o);
+    }
+
+    @Override
+    public boolean add(E element) {
+        record(POINT);
+        boolean added = form == Form.SORTED ? addSorted(element) : backing.add(element);
+        if (added) {
+            modifications++;
+            if (form == Form.SMALL && backing.size() > SMALL_LIMIT) {
+                // outgrew the compact form, leave it right away whatever the window says
+                migrate(mix.count(RANGE) * 4 > mix.count(POINT) && sortable ? Form.SORTED : Form.HASH);
+            }
+        }
+        return added;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        record(POINT);
+        boolean removed;
+        if (form == Form.SORTED) {
+            E match = sortedMatch(o);
+            removed = match != null && match.equals(o) && backing.remove(match);
+        } else {
+            removed = backing.remove(o);
+        }
+        if (removed) {
+            modifications++;
+        }
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        backing = new ArraySet<>();
+        form = Form.SMALL;
+        modifications++;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new MigrationAwareIterator<>(backing.iterator(), backing, () -> backing,
+                () -> modifications, () -> modifications++, this::remove);
+    }
+
+    public E first() {
+        record(RANGE);
+        if (backing.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        if (form == Form.SORTED) {
+            return ((TreeSet<E>) backing).first();
+        }
+        E first = null;
+        boolean found = false;
+        for (E element : backing) {
+            if (ordered(element) && (!found || compare(element, first) < 0)) {
+                first = element;
+                found = true;
+            }
+        }
+        if (!found) {
+            throw new NoSuchElementException();
+        }
+        return first;
+    }
+
+    public E last() {
+        record(RANGE);
+        if (backing.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        if (form == Form.SORTED) {
+            return ((TreeSet<E>) backing).last();
+        }
+        E last = null;
+        boolean found = false;
+        for (E element : backing) {
+            if (ordered(element) && (!found || compare(element, last) > 0)) {
+                last = element;
+                found = true;
+            }
+        }
+        if (!found) {
+            throw new NoSuchElementException();
+        }
+        return last;
+    }
+
+    // the elements in [from, to) in ascending order, as a copy. empty when from is not below to
+    public List<E> range(E from, E to) {
+        record(RANGE);
+        if (compare(from, to) >= 0) {
+            return new ArrayList<>();
+        }
+        if (form == Form.SORTED) {
+            return new ArrayList<>(((TreeSet<E>) backing).subSet(from, true, to, false));
+        }
+        List<E> matches = new ArrayList<>();
+        for (E element : backing) {
+            if (ordered(element) && compare(element, from) >= 0 && compare(element, to) < 0) {
+                matches.add(element);
+            }
+        }
+        matches.sort(this::compare);
+        return matches;
+    }
+
+    public Form getForm() {
+        return form;
+    }
+
+    public int getMigrations() {
+        return migrations;
+    }
+
+    // null has no natural order, without a comparator first/last/range leave it out like the
+    // sorted form (which cannot hold it) would
+    private boolean ordered(E element) {
+        return element != null || comparator != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(E a, E b) {
+        return comparator == null ? ((Comparable<? super E>) a).compareTo(b) : comparator.compare(a, b);
+    }
+
+    // the element of the sorted backing that compares equal to o, null if there is none or o
+    // cannot be compared with the elements at all (then it cannot be in the set either)
+    @SuppressWarnings("unchecked")
+    private E sortedMatch(Object o) {
+        try {
+            E candidate = ((TreeSet<E>) backing).ceiling((E) o);
+            return candidate != null && compare(candidate, (E) o) == 0 ? candidate : null;
+        } catch (ClassCastException | NullPointerException e) {
+            return null;
+        }
+    }
+
+    private boolean addSorted(E element) {
+        E match = sortedMatch(element);
+        if (match != null && match.equals(element)) {
+            return false;
+        }
+        if (match == null) {
+            try {
+                return backing.add(element);
+            } catch (ClassCastException | NullPointerException e) {
+                // fall through, the element cannot be sorted with the others
+            }
+        }
+        sortable = false;
+        migrate(Form.HASH);
+        return backing.add(element);
+    }
+
+    private void record(int kind) {
+        if (mix.record(kind)) {
+            adapt();
+            mix.reset();
+        }
+    }
+
+    // rough ns per operation: a hash probe is flat, a tree probe walks log2(size) nodes,
+    // a range or first/last on a hash set scans everything
+    private void adapt() {
+        int size = backing.size();
+        if (size <= SMALL_LIMIT / 2) {
+            if (form != Form.SMALL) {
+                migrate(Form.SMALL);
+            }
+            return;
+        }
+        if (form == Form.SMALL) {
+            return;
+        }
+        double hash = mix.count(POINT) * 20 + mix.count(RANGE) * 2.0 * size;
+        double sorted = (mix.count(POINT) + mix.count(RANGE)) * (10 * OperationMix.log2(size) + 10);
+        if (form == Form.HASH && sortable && OperationMix.worthMigrating(hash, sorted, size)) {
+            migrate(Form.SORTED);
+        } else if (form == Form.SORTED && OperationMix.worthMigrating(sorted, hash, size)) {
+            migrate(Form.HASH);
+        }
+    }
+
+    private void migrate(Form to) {
+        Set<E> copy;
+        if (to == Form.SMALL) {
+            copy = new ArraySet<>();
+            copy.addAll(backing);
+        } else if (to == Form.HASH) {
+            copy = new HashSet<>(backing);
+        } else {
+            copy = new TreeSet<>(comparator);
+            boolean complete;
+            try {
+                copy.addAll(backing);
+                // a comparator that calls two different elements equal would keep only one of them
+                complete = copy.size() == backing.size();
+            } catch (ClassCastException | NullPointerException e) {
+                // not comparable, or null elements without a comparator
+                complete = false;
+            }
+            if (!complete) {
+                // never try again
+                sortable = false;
+                if (form == Form.SMALL) {
+                    migrate(Form.HASH);
+                }
+                return;
+            }
+        }
+        backing = copy;
+        form = to;
+        migrations++;
+    }
+}
@@ -0,0 +1,27 @@
+package com.collection.adaptive;
+
+import java.util.Map;
+import java.util.Objects;
+
+// equals, hashCode and toString as Map.Entry specifies them, for the entries that write through
+// to their map. not Serializable on purpose, they are views that only make sense next to their map
+abstract class BaseEntry<K, V> implements Map.Entry<K, V> {
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Map.Entry)) {
+            return false;
+        }
+        Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+        return Objects.equals(getKey(), other.getKey()) && Objects.equals(getValue(), other.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+    }
+
+    @Override
+    public String toString() {
+        return getKey() + "=" + getValue();
+    }
+}
@@ -0,0 +1,76 @@
+package com.collection.adaptive;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+// walks the backing the collection had when the iterator was made. reading keeps working after the
+// collection migrated, the old backing still holds the same elements. a change made through the
+// collection never reaches the old backing, so the iterator checks the collection's own modification
+// count and fails fast like the backing's iterator would. a migration is not a change, reads may
+// trigger one at any time, so removing through the iterator afterwards goes to the collection by
+// element instead of to the abandoned backing
+final class MigrationAwareIterator<E> implements Iterator<E> {
+    private final Iterator<E> delegate;
+    private final Object backing;
+    private final Supplier<Object> currentBacking;
+    private final IntSupplier modifications;
+    private final Runnable onRemove;
+    private final Consumer<E> removeFromCollection;
+    private int expectedModifications;
+    private E lastReturned;
+    private boolean canRemove;
+
+    // onRemove records a removal made in the backing, removeFromCollection removes the element
+    // through the collection once it migrated
+    MigrationAwareIterator(Iterator<E> delegate, Object backing, Supplier<Object> currentBacking,
+                           IntSupplier modifications, Runnable onRemove, Consumer<E> removeFromCollection) {
+        this.delegate = delegate;
+        this.backing = backing;
+        this.currentBacking = currentBacking;
+        this.modifications = modifications;
+        this.onRemove = onRemove;
+        this.removeFromCollection = removeFromCollection;
+        this.expectedModifications = modifications.getAsInt();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return delegate.hasNext();
+    }
+
+    @Override
+    public E next() {
+        checkForComodification();
+        E next = delegate.next();
+        lastReturned = next;
+        canRemove = true;
+        return next;
+    }
+
+    @Override
+    public void remove() {
+        if (!canRemove) {
+            throw new IllegalStateException();
+        }
+        checkForComodification();
+        if (currentBacking.get() == backing) {
+            delegate.remove();
+            onRemove.run();
+        } else {
+            // the old backing keeps the element, the iterator has passed it and will not return it again
+            removeFromCollection.accept(lastReturned);
+        }
+        lastReturned = null;
+        canRemove = false;
+        expectedModifications = modifications.getAsInt();
+    }
+
+    private void checkForComodification() {
+        if (modifications.getAsInt() != expectedModifications) {
+            throw new ConcurrentModificationException();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.collection.adaptive;
+
+import java.util.Arrays;
+
+// counts what a collection is used for over a window of operations.
+// a plain int increment per call, the owner decides at the end of each window
+final class OperationMix {
+    static final int WINDOW = 1024;
+
+    private final int[] counts;
+    private int total;
+
+    OperationMix(int kinds) {
+        counts = new int[kinds];
+    }
+
+    // true when this call completed a window
+    boolean record(int kind) {
+        counts[kind]++;
+        return ++total == WINDOW;
+    }
+
+    int count(int kind) {
+        return counts[kind];
+    }
+
+    void reset() {
+        Arrays.fill(counts, 0);
+        total = 0;
+    }
+
+    // the new form has to be clearly cheaper for the observed mix and win back the copy within one window
+    static boolean worthMigrating(double currentCost, double candidateCost, int size) {
+        return candidateCost * 2 < currentCost && currentCost - candidateCost > 2.0 * size;
+    }
+
+    static double log2(int size) {
+        return 31 - Integer.numberOfLeadingZeros(Math.max(size, 1)) + 1;
+    }
+}
@@ -0,0 +1,654 @@
+package com.collection.list;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+// a LinkedList whose nodes hold up to 64 elements in a small array instead of one element each.
+// 64 compressed references are 256 bytes, a handful of cache lines walked sequentially, so
+// iteration and indexOf run close to ArrayList while both ends stay O(1) like LinkedList.
+// every node keeps its elements in items[start, start + count) with free room on both sides,
+// a full node is split in half on a middle insert and nearly empty neighbours are merged on remove
+public class UnrolledLinkedList<E> extends AbstractList<E> implements List<E>, Deque<E> {
+    private static final int DEFAULT_NODE_CAPACITY = 64;
+
+    private final int nodeCapacity;
+    private Node first;
+    private Node last;
+    private int size;
+
+    // the node of the last positional lookup and the list index of its first element,
+    // makes get(i), get(i + 1), ... walk the chain only once
+    private Node cached;
+    private int cachedOffset;
+
+    public UnrolledLinkedList() {
+        this(DEFAULT_NODE_CAPACITY);
+    }
+
+    public UnrolledLinkedList(int nodeCapacity) {
+        if (nodeCapacity < 8) {
+            throw new IllegalArgumentException("node capacity must be at least 8: " + nodeCapacity);
+        }
+        this.nodeCapacity = nodeCapacity;
+    }
+
+    public UnrolledLinkedList(Collection<? extends E> elements) {
+        this();
+        addAll(elements);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        Objects.checkIndex(index, size);
+        Node node = node(index);
+        return (E) node.items[node.start + index - cachedOffset];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E set(int index, E element) {
+        Objects.checkIndex(index, size);
+        Node node = node(index);
+        int slot = node.start + index - cachedOffset;
+        E old = (E) node.items[slot];
+        node.items[slot] = element;
+        return old;
+    }
+
+    @Override
+    public boolean add(E element) {
+        addLast(element);
+        return true;
+    }
+
+    @Override
+    public void add(int index, E element) {
+        Objects.checkIndex(index, size + 1);
+        if (index == size) {
+            addLast(element);
+            return;
+        }
+        if (index == 0) {
+            addFirst(element);
+            return;
+        }
+        Node node = node(index);
+        int position = index - cachedOffset;
+        if (node.count == nodeCapacity) {
+            Node right = split(node);
+            if (position > node.count) {
+                position -= node.count;
+                node = right;
+            }
+        }
+        insert(node, position, element);
+        size++;
+        modCount++;
+        cached = null;
+    }
+
+    @Override
+    public E remove(int index) {
+        Objects.checkIndex(index, size);
+        Node node = node(index);
+        return removeAt(node, index - cachedOffset);
+    }
+
+    @Override
+    public void clear() {
+        for (Node node = first; node != null; ) {
+            Node next = node.next;
+            node.items = null;
+            node.prev = null;
+            node.next = null;
+            node = next;
+        }
+        first = null;
+        last = null;
+        cached = null;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        // o.equals on a single call site like ArrayList, Objects.equals shares its type profile with every caller
+        int offset = 0;
+        for (Node node = first; node != null; node = node.next) {
+            Object[] items = node.items;
+            int end = node.start + node.count;
+            if (o == null) {
+                for (int i = node.start; i < end; i++) {
+                    if (items[i] == null) {
+                        return offset + i - node.start;
+                    }
+                }
+            } else {
+                for (int i = node.start; i < end; i++) {
+                    if (o.equals(items[i])) {
+                        return offset + i - node.start;
+                    }
+                }
+            }
+            offset += node.count;
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        int offset = size;
+        for (Node node = last; node != null; node = node.prev) {
+            offset -= node.count;
+            Object[] items = node.items;
+            if (o == null) {
+                for (int i = node.start + node.count - 1; i >= node.start; i--) {
+                    if (items[i] == null) {
+                        return offset + i - node.start;
+                    }
+                }
+            } else {
+                for (int i = node.start + node.count - 1; i >= node.start; i--) {
+                    if (o.equals(items[i])) {
+                        return offset + i - node.start;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    // walks the node arrays directly, no iterator state per element
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        int expectedModCount = modCount;
+        for (Node node = first; node != null; node = node.next) {
+            Object[] items = node.items;
+            int end = node.start + node.count;
+            for (int i = node.start; i < end; i++) {
+                action.accept((E) items[i]);
+            }
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    // deque operations
+
+    @Override
+    public void addFirst(E element) {
+        Node node = first;
+        if (node == null || node.count == nodeCapacity) {
+            node = new Node(nodeCapacity);
+            // start at the far end so the following addFirst calls are plain stores
+            node.start = nodeCapacity;
+            linkBefore(node, first);
+        } else if (node.start == 0) {
+            int newStart = nodeCapacity - node.count;
+            System.arraycopy(node.items, 0, node.items, newStart, node.count);
+            Arrays.fill(node.items, 0, Math.min(newStart, node.count), null);
+            node.start = newStart;
+        }
+        node.items[--node.start] = element;
+        node.count++;
+        size++;
+        modCount++;
+        cached = null;
+    }
+
+    @Override
+    public void addLast(E element) {
+        Node node = last;
+        if (node == null || node.count == nodeCapacity) {
+            node = new Node(nodeCapacity);
+            linkBefore(node, null);
+        } else if (node.start + node.count == nodeCapacity) {
+            System.arraycopy(node.items, node.start, node.items, 0, node.count);
+            Arrays.fill(node.items, Math.max(node.count, node.start), nodeCapacity, null);
+            node.start = 0;
+        }
+        node.items[node.start + node.count++] = element;
+        size++;
+        // offsets of the existing nodes do not change, the cached node stays valid
+        modCount++;
+    }
+
+    @Override
+    public boolean offerFirst(E element) {
+        addFirst(element);
+        return true;
+    }
+
+    @Override
+    public boolean offerLast(E element) {
+        addLast(element);
+        return true;
+    }
+
+    @Override
+    public E removeFirst() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return pollFirst();
+    }
+
+    @Override
+    public E removeLast() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return pollLast();
+    }
+
+    // the end nodes never need merging, a node emptied from the end is simply unlinked
+    @Override
+    @SuppressWarnings("unchecked")
+    public E pollFirst() {
+        Node node = first;
+        if (node == null) {
+            return null;
+        }
+        E element = (E) node.items[node.start];
+        node.items[node.start++] = null;
+        if (--node.count == 0) {
+            unlink(node);
+        }
+        size--;
+        modCount++;
+        cached = null;
+        return element;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E pollLast() {
+        Node node = last;
+        if (node == null) {
+            return null;
+        }
+        int slot = node.start + --node.count;
+        E element = (E) node.items[slot];
+        node.items[slot] = null;
+        if (node.count == 0) {
+            unlink(node);
+            if (cached == node) {
+                cached = null;
+            }
+        }
+        size--;
+        modCount++;
+        return element;
+    }
+
+    @Override
+    public E getFirst() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return peekFirst();
+    }
+
+    @Override
+    public E getLast() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return peekLast();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peekFirst() {
+        return size == 0 ? null : (E) first.items[first.start];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peekLast() {
+        return size == 0 ? null : (E) last.items[last.start + last.count - 1];
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(Object o) {
+        int index = indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    @Override
+    public boolean removeLastOccurrence(Object o) {
+        int index = lastIndexOf(o);
+        if (index < 0) {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    @Override
+    public boolean offer(E element) {
+        addLast(element);
+        return true;
+    }
+
+    @Override
+    public E remove() {
+        return removeFirst();
+    }
+
+    @Override
+    public E poll() {
+        return pollFirst();
+    }
+
+    @Override
+    public E element() {
+        return getFirst();
+    }
+
+    @Override
+    public E peek() {
+        return peekFirst();
+    }
+
+    @Override
+    public void push(E element) {
+        addFirst(element);
+    }
+
+    @Override
+    public E pop() {
+        return removeFirst();
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        return new DescendingItr();
+    }
+
+    // List and Deque both declare reversed() since Java 21. this returns a reversed copy, not a view
+    public UnrolledLinkedList<E> reversed() {
+        UnrolledLinkedList<E> reversed = new UnrolledLinkedList<>(nodeCapacity);
+        for (Iterator<E> it = descendingIterator(); it.hasNext(); ) {
+            reversed.addLast(it.next());
+        }
+        return reversed;
+    }
+
+    // number of nodes in the chain, shows how densely the elements are packed
+    public int nodeCount() {
+        int count = 0;
+        for (Node node = first; node != null; node = node.next) {
+            count++;
+        }
+        return count;
+    }
+
+    // walks from whichever of head, tail or the cached node is closest, leaves the result cached
+    private Node node(int index) {
+        Node node = first;
+        int offset = 0;
+        int distance = index;
+        if (size - index < distance) {
+            node = last;
+            offset = size - last.count;
+            distance = size - index;
+        }
+        if (cached != null && Math.abs(index - cachedOffset) < distance) {
+            node = cached;
+            offset = cachedOffset;
+        }
+        while (index >= offset + node.count) {
+            offset += node.count;
+            node = node.next;
+        }
+        while (index < offset) {
+            node = node.prev;
+            offset -= node.count;
+        }
+        cached = node;
+        cachedOffset = offset;
+        return node;
+    }
+
+    // shifts whichever side of the insert point is cheaper, the node must not be full
+    private void insert(Node node, int position, E element) {
+        Object[] items = node.items;
+        boolean roomAtEnd = node.start + node.count < nodeCapacity;
+        if (node.start > 0 && (position < node.count / 2 || !roomAtEnd)) {
+            System.arraycopy(items, node.start, items, node.start - 1, position);
+            node.start--;
+        } else {
+            int at = node.start + position;
+            System.arraycopy(items, at, items, at + 1, node.count - position);
+        }
+        items[node.start + position] = element;
+        node.count++;
+    }
+
+    // moves the upper half of a full node into a new node linked right after it
+    private Node split(Node node) {
+        Node right = new Node(nodeCapacity);
+        int moved = node.count / 2;
+        int keep = node.count - moved;
+        System.arraycopy(node.items, node.start + keep, right.items, 0, moved);
+        Arrays.fill(node.items, node.start + keep, node.start + node.count, null);
+        right.count = moved;
+        node.count = keep;
+        linkBefore(right, node.next);
+        return right;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E removeAt(Node node, int position) {
+        Object[] items = node.items;
+        E old = (E) items[node.start + position];
+        if (position < node.count / 2) {
+            System.arraycopy(items, node.start, items, node.start + 1, position);
+            items[node.start++] = null;
+        } else {
+            int at = node.start + position;
+            System.arraycopy(items, at + 1, items, at, node.count - position - 1);
+            items[node.start + node.count - 1] = null;
+        }
+        node.count--;
+        size--;
+        modCount++;
+        cached = null;
+        if (node.count == 0) {
+            unlink(node);
+        } else if (node.count < nodeCapacity / 4) {
+            if (node.next != null && node.count + node.next.count <= nodeCapacity / 2) {
+                merge(node, node.next);
+            } else if (node.prev != null && node.prev.count + node.count <= nodeCapacity / 2) {
+                merge(node.prev, node);
+            }
+        }
+        return old;
+    }
+
+    // packs right into left and drops right, both together fit in half a node
+    private void merge(Node left, Node right) {
+        if (left.start > 0) {
+            System.arraycopy(left.items, left.start, left.items, 0, left.count);
+            Arrays.fill(left.items, Math.max(left.count, left.start), left.start + left.count, null);
+            left.start = 0;
+        }
+        System.arraycopy(right.items, right.start, left.items, left.count, right.count);
+        left.count += right.count;
+        unlink(right);
+    }
+
+    private void linkBefore(Node node, Node successor) {
+        Node predecessor = successor == null ? last : successor.prev;
+        node.prev = predecessor;
+        node.next = successor;
+        if (predecessor == null) {
+            first = node;
+        } else {
+            predecessor.next = node;
+        }
+        if (successor == null) {
+            last = node;
+        } else {
+            successor.prev = node;
+        }
+    }
+
+    private void unlink(Node node) {
+        if (node.prev == null) {
+            first = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            last = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        node.items = null;
+    }
+
+    private static final class Node {
+        private Object[] items;
+        private int start;
+        private int count;
+        private Node prev;
+        private Node next;
+
+        private Node(int capacity) {
+            items = new Object[capacity];
+        }
+    }
+
+    // reads straight from the node arrays, remove() falls back to remove(index)
+    private final class Itr implements Iterator<E> {
+        private Node node = first;
+        private int position;
+        private int index;
+        private int lastReturned = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (index >= size) {
+                throw new NoSuchElementException();
+            }
+            while (position >= node.count) {
+                node = node.next;
+                position = 0;
+            }
+            E element = (E) node.items[node.start + position++];
+            lastReturned = index++;
+            return element;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            UnrolledLinkedList.this.remove(lastReturned);
+            index = lastReturned;
+            lastReturned = -1;
+            expectedModCount = modCount;
+            if (index < size) {
+                node = node(index);
+                position = index - cachedOffset;
+            }
+        }
+    }
+
+    private final class DescendingItr implements Iterator<E> {
+        private Node node = last;
+        private int position = last == null ? 0 : last.count;
+        private int index = size;
+        private int lastReturned = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return index > 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (index <= 0) {
+                throw new NoSuchElementException();
+            }
+            while (position == 0) {
+                node = node.prev;
+                position = node.count;
+            }
+            E element = (E) node.items[node.start + --position];
+            lastReturned = --index;
+            return element;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            UnrolledLinkedList.this.remove(lastReturned);
+            lastReturned = -1;
+            expectedModCount = modCount;
+            if (index > 0) {
+                node = node(index - 1);
+                position = index - cachedOffset;
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.collection.list;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+// times the operations LinkedListDemo uses on ArrayList, LinkedList and UnrolledLinkedList.
+// ArrayList has no deque methods, it gets add(0, e) and remove(0) instead.
+// every cell is the best of five runs in ns per operation, after five untimed warm-up runs
+// usage: java com.collection.list.UnrolledListBenchmark [list size, default 100_000]
+public class UnrolledListBenchmark {
+    private static final int WARMUP_RUNS = 5;
+    private static final int RUNS = 5;
+
+    private static int size;
+    private static Integer[] values;
+    private static int[] positions;
+    private static long sink;
+
+    public static void main(String[] args) {
+        size = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        values = new Integer[size];
+        positions = new int[size];
+        Random random = new Random(42);
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextInt(size);
+            positions[i] = random.nextInt(size);
+        }
+
+        List<String> names = List.of("ArrayList", "LinkedList", "UnrolledLinkedList");
+        List<Supplier<List<Integer>>> factories = List.of(ArrayList::new, LinkedList::new, UnrolledLinkedList::new);
+        System.out.printf("%-28s %14s %14s %20s%n", "ns/op, " + size + " elements", names.get(0), names.get(1), names.get(2));
+
+        row("add (append)", factories, list -> {
+            for (Integer value : values) {
+                list.add(value);
+            }
+            return size;
+        }, false);
+        row("add(index) in the middle", factories, list -> {
+            int inserts = size / 50;
+            for (int i = 0; i < inserts; i++) {
+                list.add(list.size() / 2, values[i]);
+            }
+            return inserts;
+        }, true);
+        row("add(index) at random", factories, list -> {
+            int inserts = size / 50;
+            for (int i = 0; i < inserts; i++) {
+                list.add(positions[i] % list.size(), values[i]);
+            }
+            return inserts;
+        }, true);
+        row("get(random index)", factories, list -> {
+            int gets = size / 50;
+            for (int i = 0; i < gets; i++) {
+                sink += list.get(positions[i]);
+            }
+            return gets;
+        }, true);
+        row("indexOf", factories, list -> {
+            int searches = 200;
+            for (int i = 0; i < searches; i++) {
+                sink += list.indexOf(values[positions[i]]);
+            }
+            return searches;
+        }, true);
+        row("iterate", factories, list -> {
+            for (int round = 0; round < 10; round++) {
+                for (Integer value : list) {
+                    sink += value;
+                }
+            }
+            return 10L * size;
+        }, true);
+        row("forEach", factories, list -> {
+            for (int round = 0; round < 10; round++) {
+                list.forEach(value -> sink += value);
+            }
+            return 10L * size;
+        }, true);
+        row("addFirst", factories, list -> {
+            for (Integer value : values) {
+                addFirst(list, value);
+            }
+            return size;
+        }, false);
+        row("addLast", factories, list -> {
+            for (Integer value : values) {
+                addLast(list, value);
+            }
+            return size;
+        }, false);
+        row("removeFirst/removeLast", factories, list -> {
+            for (int i = 0; i < size / 2; i++) {
+                sink += removeFirst(list) + removeLast(list);
+            }
+            return size;
+        }, true);
+        row("push/peek/pop", factories, list -> {
+            for (Integer value : values) {
+                addFirst(list, value);
+                addFirst(list, value);
+                sink += list.get(0) + removeFirst(list);
+            }
+            return 3L * size;
+        }, true);
+        row("offer/peek/poll (queue)", factories, list -> {
+            for (Integer value : values) {
+                addLast(list, value);
+                sink += list.get(0) + removeFirst(list);
+            }
+            return 3L * size;
+        }, true);
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+
+    private interface Workload {
+        long run(List<Integer> list);
+    }
+
+    private static void row(String operation, List<Supplier<List<Integer>>> factories, Workload workload, boolean prefill) {
+        System.out.printf("%-28s", operation);
+        for (Supplier<List<Integer>> factory : factories) {
+            long best = Long.MAX_VALUE;
+            for (int run = 0; run < WARMUP_RUNS + RUNS; run++) {
+                List<Integer> list = factory.get();
+                if (prefill) {
+                    for (Integer value : values) {
+                        list.add(value);
+                    }
+                }
+                long start = System.nanoTime();
+                long operations = workload.run(list);
+                long nanos = System.nanoTime() - start;
+                if (run >= WARMUP_RUNS) {
+                    best = Math.min(best, nanos / operations);
+                }
+            }
+            System.out.printf(" %14d", best);
+        }
+        System.out.printf("%n");
+    }
+
+    private static void addFirst(List<Integer> list, Integer value) {
+        if (list instanceof Deque) {
+            ((Deque<Integer>) list).addFirst(value);
+        } else {
+            list.add(0, value);
+        }
+    }
+
+    private static void addLast(List<Integer> list, Integer value) {
+        if (list instanceof Deque) {
+            ((Deque<Integer>) list).addLast(value);
+        } else {
+            list.add(value);
+        }
+    }
+
+    private static int removeFirst(List<Integer> list) {
+        return list instanceof Deque ? ((Deque<Integer>) list).removeFirst() : list.remove(0);
+    }
+
+    private static int removeLast(List<Integer> list) {
+        return list instanceof Deque ? ((Deque<Integer>) list).removeLast() : list.remove(list.size() - 1);
+    }
+}
@@ -0,0 +1,279 @@
+package com.collection.map;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ObjLongConsumer;
+
+// thread safe String -> long tally for HashMapDemo style counting from many threads.
+// every key gets one Cell holding a primitive long, increments are a CAS on that long, never a boxed
+// Long. a key whose CAS keeps failing is hot, its cell switches to stripes (like LongAdder) so
+// concurrent increments of the same word stop fighting over one cache line. it starts with two
+// stripes and doubles them, up to STRIPES, each time two threads still meet on one; a thread that
+// met another moves to a different stripe. cold keys never pay for stripes.
+// lookups never lock, only inserting a new key takes its segment's lock.
+// reads (get, iterator, forEach) sum the stripes and are not atomic with concurrent increments
+public class ConcurrentCounterMap implements Iterable<Map.Entry<String, Long>> {
+    private static final int SEGMENT_BITS = 4;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    private static final int INITIAL_SEGMENT_CAPACITY = 16;
+    // failed CASes on a key before it gets stripes, one lost race does not make it hot
+    private static final int INFLATE_AFTER = 8;
+    // a power of two around twice the core count, at most 64
+    private static final int STRIPES = Math.min(64, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) * 2);
+    // a stripe is the middle long of 2 * PAD, 64 bytes on either side keep it on a cache line of its own
+    private static final int PAD = 8;
+    // per thread stripe choice, odd so xorshift never reaches 0
+    private static final ThreadLocal<int[]> PROBE = ThreadLocal.withInitial(() -> {
+        int h = Thread.currentThread().hashCode() * 0x9E3779B9;
+        return new int[]{(h ^ (h >>> 16)) | 1};
+    });
+
+    private static final VarHandle CELLS = MethodHandles.arrayElementVarHandle(Cell[].class);
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle VALUE;
+    private static final VarHandle STRIPED;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            VALUE = lookup.findVarHandle(Cell.class, "value", long.class);
+            STRIPED = lookup.findVarHandle(Cell.class, "stripes", long[][].class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    public ConcurrentCounterMap() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    public void increment(String key) {
+        add(key, 1);
+    }
+
+    public void add(String key, long delta) {
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+        Cell cell = segment.find(key, hash);
+        if (cell == null) {
+            cell = segment.insert(key, hash);
+        }
+        cell.add(delta);
+    }
+
+    // 0 for a key that was never counted
+    public long get(String key) {
+        int hash = hash(key);
+        Cell cell = segmentFor(hash).find(key, hash);
+        return cell == null ? 0 : cell.sum();
+    }
+
+    public boolean containsKey(String key) {
+        int hash = hash(key);
+        return segmentFor(hash).find(key, hash) != null;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    // total of all counters
+    public long sum() {
+        long[] total = new long[1];
+        forEach((key, value) -> total[0] += value);
+        return total[0];
+    }
+
+    // visits the current keys without boxing the counts
+    public void forEach(ObjLongConsumer<String> action) {
+        Objects.requireNonNull(action);
+        for (Segment segment : segments) {
+            for (Cell cell : segment.table) {
+                if (cell != null) {
+                    action.accept(cell.key, cell.sum());
+                }
+            }
+        }
+    }
+
+    // iterates a copy taken when the iterator is created, later increments are not seen
+    // and the map can keep changing while the snapshot is walked
+    @Override
+    public Iterator<Map.Entry<String, Long>> iterator() {
+        List<Map.Entry<String, Long>> snapshot = new ArrayList<>(size());
+        forEach((key, value) -> snapshot.add(new AbstractMap.SimpleImmutableEntry<>(key, value)));
+        return snapshot.iterator();
+    }
+
+    public Map<String, Long> toMap() {
+        Map<String, Long> map = new LinkedHashMap<>();
+        forEach(map::put);
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    // the top bits pick the segment, the low bits the slot inside it
+    private Segment segmentFor(int hash) {
+        return segments[hash >>> (Integer.SIZE - SEGMENT_BITS)];
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Segment {
+        private volatile Cell[] table = new Cell[INITIAL_SEGMENT_CAPACITY];
+        // guarded by this, volatile so size() sees inserts from other threads
+        private volatile int size;
+
+        Cell find(String key, int hash) {
+            Cell[] cells = table;
+            int mask = cells.length - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                Cell cell = (Cell) CELLS.getAcquire(cells, i);
+                if (cell == null) {
+                    return null;
+                }
+                if (cell.hash == hash && cell.key.equals(key)) {
+                    return cell;
+                }
+            }
+        }
+
+        // a reader still probing an old table may miss the new key, it then ends up here and finds it
+        synchronized Cell insert(String key, int hash) {
+            Cell existing = find(key, hash);
+            if (existing != null) {
+                return existing;
+            }
+            Cell cell = new Cell(key, hash);
+            if ((size + 1) * 2 > table.length) {
+                resize();
+            }
+            Cell[] cells = table;
+            int mask = cells.length - 1;
+            int i = hash & mask;
+            while (cells[i] != null) {
+                i = (i + 1) & mask;
+            }
+            CELLS.setRelease(cells, i, cell);
+            size++;
+            return cell;
+        }
+
+        // cells move over as they are, increments landing on them during the copy are kept
+        private void resize() {
+            Cell[] old = table;
+            Cell[] cells = new Cell[old.length * 2];
+            int mask = cells.length - 1;
+            for (Cell cell : old) {
+                if (cell != null) {
+                    int i = cell.hash & mask;
+                    while (cells[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    cells[i] = cell;
+                }
+            }
+            table = cells;
+        }
+    }
+
+    private static final class Cell {
+        private final String key;
+        private final int hash;
+        private volatile long value;
+        // stripe arrays are shared with every bigger stripes array, so growing loses no update
+        private volatile long[][] stripes;
+        // failed CASes on value, counted racily, it is only a hint
+        private int misses;
+
+        Cell(String key, int hash) {
+            this.key = key;
+            this.hash = hash;
+        }
+
+        void add(long delta) {
+            long[][] striped = stripes;
+            if (striped == null) {
+                long current = value;
+                if (VALUE.compareAndSet(this, current, current + delta)) {
+                    return;
+                }
+                if (++misses < INFLATE_AFTER) {
+                    VALUE.getAndAdd(this, delta);
+                    return;
+                }
+                striped = inflate();
+            }
+            int[] probe = PROBE.get();
+            long[] stripe = striped[probe[0] & (striped.length - 1)];
+            long current = (long) LONGS.getVolatile(stripe, PAD);
+            if (LONGS.compareAndSet(stripe, PAD, current, current + delta)) {
+                return;
+            }
+            // met another thread on this stripe: move elsewhere and add stripes while there may be more
+            probe[0] = rehash(probe[0]);
+            grow(striped);
+            LONGS.getAndAdd(stripe, PAD, delta);
+        }
+
+        long sum() {
+            long total = value;
+            long[][] striped = stripes;
+            if (striped != null) {
+                for (long[] stripe : striped) {
+                    total += (long) LONGS.getVolatile(stripe, PAD);
+                }
+            }
+            return total;
+        }
+
+        private long[][] inflate() {
+            long[][] striped = {new long[2 * PAD], new long[2 * PAD]};
+            if (STRIPED.compareAndSet(this, null, striped)) {
+                return striped;
+            }
+            return stripes;
+        }
+
+        private void grow(long[][] current) {
+            if (current.length >= STRIPES || stripes != current) {
+                return;
+            }
+            long[][] bigger = Arrays.copyOf(current, current.length * 2);
+            for (int i = current.length; i < bigger.length; i++) {
+                bigger[i] = new long[2 * PAD];
+            }
+            STRIPED.compareAndSet(this, current, bigger);
+        }
+
+        private static int rehash(int probe) {
+            probe ^= probe << 13;
+            probe ^= probe >>> 17;
+            probe ^= probe << 5;
+            return probe;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.collection.map;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+// counts words from 1 to 64 threads with ConcurrentHashMap.merge(key, 1L, Long::sum) and with
+// ConcurrentCounterMap.increment(key). words come from a 10_000 word vocabulary either uniformly
+// or zipf distributed (s = 1.2, the top word is about 21% of all increments)
+// usage: java com.collection.map.CounterMapBenchmark [increments per run, default 8_000_000]
+public class CounterMapBenchmark {
+    private static final int VOCABULARY = 10_000;
+    private static final int SEQUENCE = 1 << 16;
+    private static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+
+    public static void main(String[] args) throws InterruptedException {
+        long increments = args.length > 0 ? Long.parseLong(args[0]) : 8_000_000;
+        String[] words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            words[i] = "word" + i;
+        }
+        String[][] uniform = sequences(words, new Random(1), 0);
+        String[][] skewed = sequences(words, new Random(2), 1.2);
+
+        System.out.printf("%-8s %7s %24s %24s%n", "keys", "threads", "CHM.merge (M incr/s)", "CounterMap (M incr/s)");
+        for (int round = 0; round < 2; round++) {
+            for (String[][] keys : new String[][][]{uniform, skewed}) {
+                for (int threads : THREADS) {
+                    ConcurrentHashMap<String, Long> chm = new ConcurrentHashMap<>();
+                    double merge = run(threads, increments, keys, key -> chm.merge(key, 1L, Long::sum));
+                    ConcurrentCounterMap counters = new ConcurrentCounterMap();
+                    double counter = run(threads, increments, keys, counters::increment);
+                    check(chm.values().stream().mapToLong(Long::longValue).sum(), counters.sum(), threads, increments);
+                    if (round == 1) {
+                        System.out.printf("%-8s %7d %24.1f %24.1f%n", keys == uniform ? "uniform" : "zipf", threads, merge, counter);
+                    }
+                }
+            }
+        }
+    }
+
+    // millions of increments per second, every thread walks its own precomputed key sequence
+    private static double run(int threads, long increments, String[][] keys, Consumer<String> increment) throws InterruptedException {
+        long perThread = increments / threads;
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            String[] sequence = keys[t % keys.length];
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (long i = 0; i < perThread; i++) {
+                    increment.accept(sequence[(int) (i & (SEQUENCE - 1))]);
+                }
+                done.countDown();
+            });
+            thread.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return perThread * threads / ((System.nanoTime() - begin) / 1e3);
+    }
+
+    // s = 0 gives uniform keys
+    private static String[][] sequences(String[] words, Random random, double s) {
+        double[] cumulative = new double[words.length];
+        double total = 0;
+        for (int i = 0; i < words.length; i++) {
+            total += 1 / Math.pow(i + 1, s);
+            cumulative[i] = total;
+        }
+        String[][] sequences = new String[8][SEQUENCE];
+        for (String[] sequence : sequences) {
+            for (int i = 0; i < SEQUENCE; i++) {
+                int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+                sequence[i] = words[Math.min(words.length - 1, rank < 0 ? -rank - 1 : rank)];
+            }
+        }
+        return sequences;
+    }
+
+    private static void check(long merged, long counted, int threads, long increments) {
+        long expected = increments / threads * threads;
+        if (merged != expected || counted != expected) {
+            throw new IllegalStateException("lost increments: expected " + expected + ", merge " + merged + ", counter map " + counted);
+        }
+    }
+}
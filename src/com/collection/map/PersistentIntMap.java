@@ -0,0 +1,140 @@
+package com.collection.map;
+
+import java.util.function.BiConsumer;
+
+// immutable int -> value map (a hash array mapped trie). put() returns a new version that copies
+// one node per level, at most 7 levels for 32 bit keys, and shares the rest with the old version.
+// every node stores a 32 bit bitmap of used slots and an array just big enough for them
+public final class PersistentIntMap<V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final PersistentIntMap<?> EMPTY = new PersistentIntMap<>(new Node(0, new Object[0]), 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentIntMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentIntMap<V> empty() {
+        return (PersistentIntMap<V>) EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int hash = hash(key);
+        Node node = root;
+        for (int shift = 0; ; shift += BITS) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((node.bitmap & bit) == 0) {
+                return null;
+            }
+            Object slot = node.slots[Integer.bitCount(node.bitmap & (bit - 1))];
+            if (slot instanceof Node) {
+                node = (Node) slot;
+            } else {
+                Entry entry = (Entry) slot;
+                return entry.key == key ? (V) entry.value : null;
+            }
+        }
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    // null values are not supported, get() uses null for missing keys
+    public PersistentIntMap<V> put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        boolean[] added = new boolean[1];
+        Node newRoot = put(root, 0, new Entry(key, hash(key), value), added);
+        return new PersistentIntMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<Integer, ? super V> action) {
+        forEach(root, (BiConsumer<Integer, Object>) action);
+    }
+
+    private static Node put(Node node, int shift, Entry entry, boolean[] added) {
+        int bit = 1 << ((entry.hash >>> shift) & MASK);
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+        if ((node.bitmap & bit) == 0) {
+            Object[] slots = new Object[node.slots.length + 1];
+            System.arraycopy(node.slots, 0, slots, 0, index);
+            slots[index] = entry;
+            System.arraycopy(node.slots, index, slots, index + 1, node.slots.length - index);
+            added[0] = true;
+            return new Node(node.bitmap | bit, slots);
+        }
+        Object slot = node.slots[index];
+        Object replacement;
+        if (slot instanceof Node) {
+            replacement = put((Node) slot, shift + BITS, entry, added);
+        } else {
+            Entry existing = (Entry) slot;
+            if (existing.key == entry.key) {
+                replacement = entry;
+            } else {
+                // two keys share this slot, push both one level down
+                Node child = put(new Node(0, new Object[0]), shift + BITS, existing, new boolean[1]);
+                replacement = put(child, shift + BITS, entry, added);
+            }
+        }
+        Object[] slots = node.slots.clone();
+        slots[index] = replacement;
+        return new Node(node.bitmap, slots);
+    }
+
+    private static void forEach(Node node, BiConsumer<Integer, Object> action) {
+        for (Object slot : node.slots) {
+            if (slot instanceof Node) {
+                forEach((Node) slot, action);
+            } else {
+                Entry entry = (Entry) slot;
+                action.accept(entry.key, entry.value);
+            }
+        }
+    }
+
+    // murmur3 finalizer, a bijection so distinct keys always end up in distinct slots by level 7
+    private static int hash(int key) {
+        key ^= key >>> 16;
+        key *= 0x85ebca6b;
+        key ^= key >>> 13;
+        key *= 0xc2b2ae35;
+        key ^= key >>> 16;
+        return key;
+    }
+
+    private static final class Node {
+        private final int bitmap;
+        private final Object[] slots;
+
+        private Node(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+    }
+
+    private static final class Entry {
+        private final int key;
+        private final int hash;
+        private final Object value;
+
+        private Entry(int key, int hash, Object value) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+        }
+    }
+}
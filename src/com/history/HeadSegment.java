@@ -0,0 +1,96 @@
+package com.history;
+
+import com.java8.Order;
+
+import java.util.function.ObjLongConsumer;
+
+// the mutable newest tier, plain Order objects in arrays of fixed capacity.
+// one writer appends, readers never lock: they read size first and only look at slots below it,
+// the volatile write of size publishes the slots written before it.
+// once full the head is frozen and stays readable until the compactor replaces it with a sealed copy
+final class HeadSegment implements Segment {
+    private final Order[] orders;
+    private final long[] timestamps;
+    private volatile int size;
+    // compactor thread only: false once sealing failed, the head then stays as objects
+    private boolean sealable = true;
+
+    HeadSegment(int capacity) {
+        orders = new Order[capacity];
+        timestamps = new long[capacity];
+    }
+
+    // false when full, the caller starts a new head
+    boolean append(long timestamp, Order order) {
+        int index = size;
+        if (index == orders.length) {
+            return false;
+        }
+        orders[index] = order;
+        timestamps[index] = timestamp;
+        size = index + 1;
+        return true;
+    }
+
+    boolean isSealable() {
+        return sealable;
+    }
+
+    void keepAsObjects() {
+        sealable = false;
+    }
+
+    Order orderAt(int index) {
+        return orders[index];
+    }
+
+    long timestampAt(int index) {
+        return timestamps[index];
+    }
+
+    @Override
+    public long minTime() {
+        return size == 0 ? Long.MAX_VALUE : timestamps[0];
+    }
+
+    @Override
+    public long maxTime() {
+        int last = size - 1;
+        return last < 0 ? Long.MIN_VALUE : timestamps[last];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void scan(long from, long to, ObjLongConsumer<Order> visitor) {
+        int end = size;
+        for (int i = SealedSegment.lowerBound(timestamps, end, from); i < end && timestamps[i] <= to; i++) {
+            visitor.accept(orders[i], timestamps[i]);
+        }
+    }
+
+    @Override
+    public Order findById(int id) {
+        int end = size;
+        for (int i = end - 1; i >= 0; i--) {
+            Integer orderId = orders[i].getId();
+            if (orderId != null && orderId == id) {
+                return orders[i];
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public long encodedBytes() {
+        return 0;
+    }
+
+    @Override
+    public boolean isOffHeap() {
+        return false;
+    }
+}
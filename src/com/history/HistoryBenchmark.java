@@ -0,0 +1,261 @@
+package com.history;
+
+import com.java8.Item;
+import com.java8.Order;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ObjLongConsumer;
+
+// simulates 30 days of order intake, every order kept with its timestamp, and compares three stores:
+//   list     every order as objects in one ArrayList (with a parallel long[] of timestamps)
+//   heap     OrderHistory with sealed segments in heap byte buffers
+//   offheap  OrderHistory with sealed segments in direct buffers
+// at the end of every day it sums the order totals of that day and of the last 7 days, at the end
+// a full 30-day scan. every store runs in its own JVM with the same fixed heap (-Xms = -Xmx) so the
+// GC numbers are its own. the live heap is measured once at the end, after the GC numbers are taken
+// usage: java com.history.HistoryBenchmark [orders per day, default 100_000] [max heap, default 2g]
+public class HistoryBenchmark {
+    private static final int DAYS = 30;
+    private static final long DAY = 86_400_000L;
+
+    private static final AtomicLong gcCount = new AtomicLong();
+    private static final AtomicLong gcMillis = new AtomicLong();
+    private static final AtomicLong gcMaxMillis = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("run")) {
+            run(args[1], Integer.parseInt(args[2]));
+            return;
+        }
+        int ordersPerDay = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        String heap = args.length > 1 ? args[1] : "2g";
+        System.out.printf("%d days x %,d orders, -Xms/-Xmx %s%n", DAYS, ordersPerDay, heap);
+        for (String mode : new String[]{"list", "heap", "offheap"}) {
+            System.out.println(mode);
+            launch(heap, mode, ordersPerDay);
+        }
+    }
+
+    private static void launch(String heap, String mode, int ordersPerDay) throws IOException, InterruptedException {
+        List<String> command = List.of(
+                System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+                "-Xms" + heap, "-Xmx" + heap, "-cp", System.getProperty("java.class.path"),
+                HistoryBenchmark.class.getName(), "run", mode, String.valueOf(ordersPerDay));
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                System.out.println("  " + line);
+            }
+        }
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("history run failed: " + command);
+        }
+    }
+
+    // the child JVM
+    private static void run(String mode, int ordersPerDay) throws InterruptedException {
+        listenToGc();
+        Store store = mode.equals("list") ? new ListStore() : new HistoryStore(mode.equals("offheap"));
+        int id = 0;
+        long appendNanos = 0;
+        long queryNanos = 0;
+        long queried = 0;
+        long checksum = 0;
+        for (int day = 0; day < DAYS; day++) {
+            long dayStart = day * DAY;
+            long start = System.nanoTime();
+            for (int i = 0; i < ordersPerDay; i++) {
+                store.append(dayStart + i * (DAY / ordersPerDay), newOrder(id++));
+            }
+            appendNanos += System.nanoTime() - start;
+
+            long[] sum = new long[2];
+            start = System.nanoTime();
+            store.scan(dayStart, dayStart + DAY - 1, (order, timestamp) -> {
+                sum[0] += total(order);
+                sum[1]++;
+            });
+            store.scan(Math.max(0, day - 6) * DAY, dayStart + DAY - 1, (order, timestamp) -> {
+                sum[0] += total(order);
+                sum[1]++;
+            });
+            queryNanos += System.nanoTime() - start;
+            queried += sum[1];
+            checksum += sum[0];
+            if (day % 10 == 9) {
+                System.out.printf("day %2d: %,d orders, %s, %d GCs so far, longest pause %d ms%n",
+                        day + 1, store.size(), store.describe(), gcCount.get(), gcMaxMillis.get());
+            }
+        }
+        store.awaitCompaction();
+
+        long full = Long.MAX_VALUE;
+        long[] sum = new long[1];
+        for (int round = 0; round < 3; round++) {
+            sum[0] = 0;
+            long start = System.nanoTime();
+            store.scan(0, DAYS * DAY, (order, timestamp) -> sum[0] += total(order));
+            full = Math.min(full, System.nanoTime() - start);
+        }
+        System.out.printf("append %,.0f orders/s, daily queries %,.0f orders/s, full scan %,.0f orders/s (%,d ms)%n",
+                (double) store.size() * 1e9 / appendNanos, queried * 1e9 / queryNanos, store.size() * 1e9 / full, full / 1_000_000);
+        System.out.printf("%d GCs, %,d ms in GC, longest pause %d ms, checksum %d%n",
+                gcCount.get(), gcMillis.get(), gcMaxMillis.get(), checksum + sum[0]);
+        System.out.printf("live heap %,d MB, off-heap %,d MB%n", liveHeap() >> 20, offHeap() >> 20);
+        store.close();
+    }
+
+    // a fresh order, item list, items and strings every time, like a decoder would hand them over
+    private static Order newOrder(int id) {
+        List<Item> items = new ArrayList<>();
+        for (int j = 0; j < 1 + id % 5; j++) {
+            items.add(new Item(j, "Item" + j, 100 + j * 50));
+        }
+        return new Order(id, items, "Customer" + id % 1000);
+    }
+
+    private static long total(Order order) {
+        long total = 0;
+        for (Item item : order.getItems()) {
+            total += item.getPrice();
+        }
+        return total;
+    }
+
+    private static long liveHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long offHeap() {
+        long bytes = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                bytes += pool.getMemoryUsed();
+            }
+        }
+        return bytes;
+    }
+
+    private static void listenToGc() {
+        NotificationListener listener = (notification, handback) -> {
+            if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                return;
+            }
+            GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            long duration = info.getGcInfo().getDuration();
+            gcCount.incrementAndGet();
+            gcMillis.addAndGet(duration);
+            gcMaxMillis.accumulateAndGet(duration, Math::max);
+        };
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) collector).addNotificationListener(listener, null, null);
+        }
+    }
+
+    private interface Store {
+        void append(long timestamp, Order order);
+
+        void scan(long from, long to, ObjLongConsumer<Order> visitor);
+
+        long size();
+
+        String describe();
+
+        void awaitCompaction() throws InterruptedException;
+
+        void close();
+    }
+
+    private static final class ListStore implements Store {
+        private final List<Order> orders = new ArrayList<>();
+        private long[] timestamps = new long[1024];
+
+        @Override
+        public void append(long timestamp, Order order) {
+            if (orders.size() == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, timestamps.length * 2);
+            }
+            timestamps[orders.size()] = timestamp;
+            orders.add(order);
+        }
+
+        @Override
+        public void scan(long from, long to, ObjLongConsumer<Order> visitor) {
+            int end = orders.size();
+            for (int i = SealedSegment.lowerBound(timestamps, end, from); i < end && timestamps[i] <= to; i++) {
+                visitor.accept(orders.get(i), timestamps[i]);
+            }
+        }
+
+        @Override
+        public long size() {
+            return orders.size();
+        }
+
+        @Override
+        public String describe() {
+            return "one list";
+        }
+
+        @Override
+        public void awaitCompaction() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class HistoryStore implements Store {
+        private final OrderHistory history;
+
+        private HistoryStore(boolean offHeap) {
+            history = new OrderHistory(OrderHistory.DEFAULT_HEAD_CAPACITY, offHeap);
+        }
+
+        @Override
+        public void append(long timestamp, Order order) {
+            history.append(timestamp, order);
+        }
+
+        @Override
+        public void scan(long from, long to, ObjLongConsumer<Order> visitor) {
+            history.scan(from, to, visitor);
+        }
+
+        @Override
+        public long size() {
+            return history.size();
+        }
+
+        @Override
+        public String describe() {
+            return history.getSegmentCount() + " segments, " + (history.getEncodedBytes() >> 20) + " MB encoded";
+        }
+
+        @Override
+        public void awaitCompaction() throws InterruptedException {
+            history.awaitCompaction();
+        }
+
+        @Override
+        public void close() {
+            history.close();
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.history;
+
+import com.java8.Order;
+import com.nio.OrderCodec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ObjLongConsumer;
+
+// an append-only, time-ordered order log in tiers:
+//   head    the newest orders as objects, appended to in place
+//   frozen  full heads waiting for the compactor, still plain objects
+//   sealed  OrderCodec-encoded segments (SealedSegment), on or off heap
+// the compactor thread seals frozen heads and merges runs of MERGE_FACTOR similar sized sealed
+// segments into one, so old orders end up in a few large buffers the GC never has to trace.
+// the tier list is an immutable snapshot swapped with compare-and-set (as in VersionedOrderRepository),
+// a query takes one snapshot and reads across all tiers without locking.
+// appends must come with non-decreasing timestamps and orders OrderCodec can encode, both are checked
+// up front without encoding anything. the order is encoded once, when its head is sealed. orders should
+// not change once appended, one that did anyway is sealed as it is then, and one changed so that it no
+// longer encodes (a null item, say) keeps its whole frozen head as objects. should compaction still
+// fail (out of direct memory, say) the error is kept and every later append and awaitCompaction throws it
+public class OrderHistory implements AutoCloseable {
+    public static final int DEFAULT_HEAD_CAPACITY = 65_536;
+    private static final int MERGE_FACTOR = 4;
+
+    private final int headCapacity;
+    private final int maxSegmentSize;
+    private final boolean offHeap;
+    private final AtomicReference<Tiers> tiers;
+    private final ExecutorService compactor;
+    private final AtomicReference<Throwable> compactionFailure = new AtomicReference<>();
+    private long lastTimestamp = Long.MIN_VALUE;
+    private boolean closed;
+
+    public OrderHistory() {
+        this(DEFAULT_HEAD_CAPACITY, false);
+    }
+
+    public OrderHistory(int headCapacity, boolean offHeap) {
+        if (headCapacity < 1) {
+            throw new IllegalArgumentException("head capacity must be positive: " + headCapacity);
+        }
+        this.headCapacity = headCapacity;
+        // two rounds of merging at most, 1 -> 4 -> 16 heads per segment
+        this.maxSegmentSize = headCapacity * MERGE_FACTOR * MERGE_FACTOR;
+        this.offHeap = offHeap;
+        this.tiers = new AtomicReference<>(new Tiers(new HeadSegment(headCapacity), List.of()));
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-history-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public synchronized void append(long timestamp, Order order) {
+        if (closed) {
+            throw new IllegalStateException("order history is closed");
+        }
+        checkCompaction();
+        if (order == null) {
+            throw new IllegalArgumentException("order must not be null");
+        }
+        if (timestamp < lastTimestamp) {
+            throw new IllegalArgumentException("timestamp " + timestamp + " is older than the last appended " + lastTimestamp);
+        }
+        // only measures, the order is encoded when its head is sealed
+        OrderCodec.encodedSize(order);
+        lastTimestamp = timestamp;
+        HeadSegment head = tiers.get().head;
+        if (!head.append(timestamp, order)) {
+            HeadSegment next = new HeadSegment(headCapacity);
+            next.append(timestamp, order);
+            tiers.updateAndGet(current -> current.withHead(next));
+            compactor.execute(this::compactSafely);
+        }
+    }
+
+    // every order with from <= timestamp <= to, oldest first, from all tiers
+    public void scan(long from, long to, ObjLongConsumer<Order> visitor) {
+        Tiers snapshot = tiers.get();
+        for (Segment segment : snapshot.older) {
+            if (segment.maxTime() >= from && segment.minTime() <= to) {
+                segment.scan(from, to, visitor);
+            }
+        }
+        snapshot.head.scan(from, to, visitor);
+    }
+
+    public List<Order> between(long from, long to) {
+        List<Order> orders = new ArrayList<>();
+        scan(from, to, (order, timestamp) -> orders.add(order));
+        return orders;
+    }
+
+    // newest tier first, the first order found with the id wins
+    public Order findOrderById(int id) {
+        Tiers snapshot = tiers.get();
+        Order order = snapshot.head.findById(id);
+        for (int i = snapshot.older.size() - 1; order == null && i >= 0; i--) {
+            order = snapshot.older.get(i).findById(id);
+        }
+        return order;
+    }
+
+    public long size() {
+        Tiers snapshot = tiers.get();
+        long size = snapshot.head.size();
+        for (Segment segment : snapshot.older) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public int getSegmentCount() {
+        return tiers.get().older.size() + 1;
+    }
+
+    public long getEncodedBytes() {
+        long bytes = 0;
+        for (Segment segment : tiers.get().older) {
+            bytes += segment.encodedBytes();
+        }
+        return bytes;
+    }
+
+    // blocks until everything handed to the compactor so far is sealed and merged, throws
+    // IllegalStateException if any of it failed
+    public void awaitCompaction() throws InterruptedException {
+        Future<?> done;
+        // close shuts the compactor down under the same lock, so the submit is never rejected
+        synchronized (this) {
+            if (closed) {
+                // close already waited for the compactor
+                checkCompaction();
+                return;
+            }
+            done = compactor.submit(this::checkCompaction);
+        }
+        try {
+            done.get();
+        } catch (ExecutionException e) {
+            throw (IllegalStateException) e.getCause();
+        }
+    }
+
+    // waits for the compactor to finish its work, the orders stay readable afterwards.
+    // an interrupt ends the wait early and is passed on to the caller
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            compactor.shutdown();
+        }
+        try {
+            if (!compactor.awaitTermination(1, TimeUnit.MINUTES)) {
+                throw new IllegalStateException("order history compactor still running after 1 minute");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkCompaction() {
+        Throwable failure = compactionFailure.get();
+        if (failure != null) {
+            throw new IllegalStateException("order history compaction failed", failure);
+        }
+    }
+
+    private void compactSafely() {
+        try {
+            compact();
+        } catch (RuntimeException | Error e) {
+            // the first failure is the one worth reporting, later ones usually repeat it
+            compactionFailure.compareAndSet(null, e);
+        }
+    }
+
+    // runs on the compactor thread only, so nobody else removes segments while it works
+    private void compact() {
+        for (Segment segment : tiers.get().older) {
+            if (segment instanceof HeadSegment && ((HeadSegment) segment).isSealable()) {
+                HeadSegment head = (HeadSegment) segment;
+                SealedSegment sealed;
+                try {
+                    sealed = SealedSegment.seal(head, offHeap);
+                } catch (IllegalArgumentException e) {
+                    // an order was changed after append into one that cannot be encoded, it is still
+                    // a valid order so the head stays readable as it is instead of failing the history
+                    head.keepAsObjects();
+                    continue;
+                }
+                replace(List.of(segment), sealed);
+            }
+        }
+        for (List<SealedSegment> run = nextMerge(); run != null; run = nextMerge()) {
+            replace(List.copyOf(run), SealedSegment.merge(run, offHeap));
+        }
+    }
+
+    // the oldest MERGE_FACTOR adjacent sealed segments of about the same size that fit in one segment
+    private List<SealedSegment> nextMerge() {
+        List<Segment> older = tiers.get().older;
+        for (int start = 0; start + MERGE_FACTOR <= older.size(); start++) {
+            List<SealedSegment> run = new ArrayList<>(MERGE_FACTOR);
+            int total = 0;
+            int smallest = Integer.MAX_VALUE;
+            int largest = 0;
+            for (int i = start; i < start + MERGE_FACTOR && older.get(i) instanceof SealedSegment; i++) {
+                SealedSegment segment = (SealedSegment) older.get(i);
+                run.add(segment);
+                total += segment.size();
+                smallest = Math.min(smallest, segment.size());
+                largest = Math.max(largest, segment.size());
+            }
+            if (run.size() == MERGE_FACTOR && total <= maxSegmentSize && largest <= 2 * smallest) {
+                return run;
+            }
+        }
+        return null;
+    }
+
+    private void replace(List<? extends Segment> run, Segment replacement) {
+        tiers.updateAndGet(current -> current.replace(run, replacement));
+    }
+
+    private static final class Tiers {
+        private final HeadSegment head;
+        // oldest first
+        private final List<Segment> older;
+
+        private Tiers(HeadSegment head, List<Segment> older) {
+            this.head = head;
+            this.older = older;
+        }
+
+        // the current head is frozen as the newest older tier
+        private Tiers withHead(HeadSegment next) {
+            List<Segment> segments = new ArrayList<>(older);
+            segments.add(head);
+            return new Tiers(next, List.copyOf(segments));
+        }
+
+        // run is contiguous in older, it is swapped for one segment holding the same orders
+        private Tiers replace(List<? extends Segment> run, Segment replacement) {
+            List<Segment> segments = new ArrayList<>(older.size());
+            for (Segment segment : older) {
+                if (segment == run.get(0)) {
+                    segments.add(replacement);
+                } else if (!run.contains(segment)) {
+                    segments.add(segment);
+                }
+            }
+            return new Tiers(head, List.copyOf(segments));
+        }
+    }
+}
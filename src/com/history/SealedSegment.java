@@ -0,0 +1,193 @@
+package com.history;
+
+import com.java8.Order;
+import com.nio.OrderCodec;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ObjLongConsumer;
+
+// an immutable tier: the orders OrderCodec-encoded back to back in one buffer, on or off heap.
+// the heap keeps only the timestamp and offset of every record and a sorted (id, position) index,
+// 20 bytes per order instead of the Order, its item list and items. orders are decoded on every read.
+// orders without an id are left out of the index, findById never returns them
+final class SealedSegment implements Segment {
+    private final ByteBuffer data;
+    private final long[] timestamps;
+    private final int[] offsets;
+    private final long[] ids;
+
+    private SealedSegment(ByteBuffer data, long[] timestamps, int[] offsets, long[] ids) {
+        this.data = data;
+        this.timestamps = timestamps;
+        this.offsets = offsets;
+        this.ids = ids;
+    }
+
+    // every order is encoded once. orders are measured first and may still change before they are
+    // encoded, one that grew gets the room it needs on its own. throws IllegalArgumentException for
+    // an order that no longer encodes at all
+    static SealedSegment seal(HeadSegment head, boolean offHeap) {
+        int count = head.size();
+        int bytes = 0;
+        for (int i = 0; i < count; i++) {
+            bytes += OrderCodec.encodedSize(head.orderAt(i));
+        }
+        ByteBuffer data = allocate(bytes, offHeap);
+        long[] timestamps = new long[count];
+        int[] offsets = new int[count];
+        long[] ids = new long[count];
+        int indexed = 0;
+        for (int i = 0; i < count; i++) {
+            Order order = head.orderAt(i);
+            timestamps[i] = head.timestampAt(i);
+            offsets[i] = data.position();
+            Integer id = order.getId();
+            if (id != null) {
+                ids[indexed++] = idEntry(id, i);
+            }
+            while (true) {
+                try {
+                    OrderCodec.encode(order, data);
+                    break;
+                } catch (BufferOverflowException e) {
+                    data.position(offsets[i]);
+                    data = copy(data, data.capacity() + OrderCodec.encodedSize(order), offHeap);
+                }
+            }
+        }
+        if (data.hasRemaining()) {
+            // some order changed size, keep the buffer exact so merge can copy it whole
+            data = copy(data, data.position(), offHeap);
+        }
+        ids = Arrays.copyOf(ids, indexed);
+        Arrays.sort(ids);
+        return new SealedSegment(data, timestamps, offsets, ids);
+    }
+
+    // adjacent segments in time order become one, the encoded records are copied as they are
+    static SealedSegment merge(List<SealedSegment> parts, boolean offHeap) {
+        int count = 0;
+        int indexed = 0;
+        int bytes = 0;
+        for (SealedSegment part : parts) {
+            count += part.size();
+            indexed += part.ids.length;
+            bytes += part.data.capacity();
+        }
+        ByteBuffer data = allocate(bytes, offHeap);
+        long[] timestamps = new long[count];
+        int[] offsets = new int[count];
+        long[] ids = new long[indexed];
+        int base = 0;
+        int idBase = 0;
+        for (SealedSegment part : parts) {
+            int byteBase = data.position();
+            data.put(part.data.duplicate().clear());
+            System.arraycopy(part.timestamps, 0, timestamps, base, part.size());
+            for (int i = 0; i < part.size(); i++) {
+                offsets[base + i] = part.offsets[i] + byteBase;
+            }
+            for (int i = 0; i < part.ids.length; i++) {
+                ids[idBase + i] = idEntry((int) (part.ids[i] >> 32), (int) part.ids[i] + base);
+            }
+            base += part.size();
+            idBase += part.ids.length;
+        }
+        Arrays.sort(ids);
+        return new SealedSegment(data, timestamps, offsets, ids);
+    }
+
+    @Override
+    public long minTime() {
+        return timestamps.length == 0 ? Long.MAX_VALUE : timestamps[0];
+    }
+
+    @Override
+    public long maxTime() {
+        return timestamps.length == 0 ? Long.MIN_VALUE : timestamps[timestamps.length - 1];
+    }
+
+    @Override
+    public int size() {
+        return timestamps.length;
+    }
+
+    @Override
+    public void scan(long from, long to, ObjLongConsumer<Order> visitor) {
+        ByteBuffer records = data.duplicate();
+        int i = lowerBound(timestamps, timestamps.length, from);
+        if (i < timestamps.length) {
+            records.position(offsets[i]);
+        }
+        // the records are contiguous, each decode leaves the buffer at the next length prefix
+        for (; i < timestamps.length && timestamps[i] <= to; i++) {
+            records.position(records.position() + OrderCodec.LENGTH_PREFIX);
+            visitor.accept(OrderCodec.decode(records), timestamps[i]);
+        }
+    }
+
+    @Override
+    public Order findById(int id) {
+        // the last entry for the id, the newest order with it like in the head
+        int low = 0;
+        int high = ids.length;
+        long key = idEntry(id, -1);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ids[middle] <= key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        if (low == 0 || (int) (ids[low - 1] >> 32) != id) {
+            return null;
+        }
+        ByteBuffer record = data.duplicate();
+        record.position(offsets[(int) ids[low - 1]] + OrderCodec.LENGTH_PREFIX);
+        return OrderCodec.decode(record);
+    }
+
+    @Override
+    public long encodedBytes() {
+        return data.capacity();
+    }
+
+    @Override
+    public boolean isOffHeap() {
+        return data.isDirect();
+    }
+
+    // first index below end whose timestamp is >= value
+    static int lowerBound(long[] timestamps, int end, long value) {
+        int low = 0;
+        int high = end;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (timestamps[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static ByteBuffer allocate(int bytes, boolean offHeap) {
+        return offHeap ? ByteBuffer.allocateDirect(bytes) : ByteBuffer.allocate(bytes);
+    }
+
+    // the bytes before the position of data in a new buffer of the given capacity
+    private static ByteBuffer copy(ByteBuffer data, int capacity, boolean offHeap) {
+        ByteBuffer copy = allocate(capacity, offHeap);
+        copy.put(data.flip());
+        return copy;
+    }
+
+    private static long idEntry(int id, int position) {
+        return (long) id << 32 | (position & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,24 @@
+package com.history;
+
+import com.java8.Order;
+
+import java.util.function.ObjLongConsumer;
+
+// one tier of an OrderHistory: a run of orders in timestamp order
+interface Segment {
+    long minTime();
+
+    long maxTime();
+
+    int size();
+
+    // every order with from <= timestamp <= to, oldest first
+    void scan(long from, long to, ObjLongConsumer<Order> visitor);
+
+    Order findById(int id);
+
+    // bytes of encoded orders, 0 for orders still kept as objects
+    long encodedBytes();
+
+    boolean isOffHeap();
+}
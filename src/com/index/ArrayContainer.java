@@ -0,0 +1,139 @@
+package com.index;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+final class ArrayContainer extends Container {
+    char[] values;
+    int size;
+
+    ArrayContainer() {
+        this(new char[4], 0);
+    }
+
+    ArrayContainer(char[] values, int size) {
+        this.values = values;
+        this.size = size;
+    }
+
+    @Override
+    Container add(char value) {
+        // appending in ascending order, the common case when building an index, skips the search
+        if (size > 0 && values[size - 1] < value) {
+            return insert(size, value);
+        }
+        int index = Arrays.binarySearch(values, 0, size, value);
+        return index >= 0 ? this : insert(-index - 1, value);
+    }
+
+    @Override
+    boolean contains(char value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    @Override
+    int cardinality() {
+        return size;
+    }
+
+    @Override
+    Container and(Container other) {
+        if (other instanceof BitmapContainer) {
+            return other.and(this);
+        }
+        ArrayContainer that = (ArrayContainer) other;
+        char[] result = new char[Math.min(size, that.size)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < that.size) {
+            if (values[i] < that.values[j]) {
+                i++;
+            } else if (values[i] > that.values[j]) {
+                j++;
+            } else {
+                result[count++] = values[i];
+                i++;
+                j++;
+            }
+        }
+        return new ArrayContainer(result, count);
+    }
+
+    @Override
+    Container or(Container other) {
+        if (other instanceof BitmapContainer) {
+            return other.or(this);
+        }
+        ArrayContainer that = (ArrayContainer) other;
+        if (size + that.size > MAX_ARRAY_SIZE) {
+            BitmapContainer bitmap = toBitmap();
+            for (int i = 0; i < that.size; i++) {
+                bitmap.set(that.values[i]);
+            }
+            return bitmap.cardinality() > MAX_ARRAY_SIZE ? bitmap : bitmap.toArray();
+        }
+        char[] result = new char[size + that.size];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < that.size) {
+            if (values[i] < that.values[j]) {
+                result[count++] = values[i++];
+            } else if (values[i] > that.values[j]) {
+                result[count++] = that.values[j++];
+            } else {
+                result[count++] = values[i];
+                i++;
+                j++;
+            }
+        }
+        while (i < size) {
+            result[count++] = values[i++];
+        }
+        while (j < that.size) {
+            result[count++] = that.values[j++];
+        }
+        return new ArrayContainer(result, count);
+    }
+
+    @Override
+    void forEach(int high, IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(high | values[i]);
+        }
+    }
+
+    @Override
+    Container copy() {
+        return new ArrayContainer(Arrays.copyOf(values, Math.max(size, 1)), size);
+    }
+
+    @Override
+    long memoryBytes() {
+        return 16L + values.length * 2L;
+    }
+
+    BitmapContainer toBitmap() {
+        BitmapContainer bitmap = new BitmapContainer();
+        for (int i = 0; i < size; i++) {
+            bitmap.set(values[i]);
+        }
+        return bitmap;
+    }
+
+    private Container insert(int index, char value) {
+        if (size == MAX_ARRAY_SIZE) {
+            BitmapContainer bitmap = toBitmap();
+            bitmap.set(value);
+            return bitmap;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.min(MAX_ARRAY_SIZE, Math.max(4, size * 2)));
+        }
+        System.arraycopy(values, index, values, index + 1, size - index);
+        values[index] = value;
+        size++;
+        return this;
+    }
+}
@@ -0,0 +1,133 @@
+package com.index;
+
+import java.util.function.IntConsumer;
+
+final class BitmapContainer extends Container {
+    final long[] words = new long[1024];
+    int cardinality;
+
+    @Override
+    Container add(char value) {
+        set(value);
+        return this;
+    }
+
+    void set(char value) {
+        long before = words[value >>> 6];
+        long after = before | (1L << value);
+        if (before != after) {
+            words[value >>> 6] = after;
+            cardinality++;
+        }
+    }
+
+    @Override
+    boolean contains(char value) {
+        return (words[value >>> 6] & (1L << value)) != 0;
+    }
+
+    @Override
+    int cardinality() {
+        return cardinality;
+    }
+
+    @Override
+    Container and(Container other) {
+        if (other instanceof ArrayContainer) {
+            ArrayContainer that = (ArrayContainer) other;
+            char[] result = new char[that.size];
+            int count = 0;
+            for (int i = 0; i < that.size; i++) {
+                if (contains(that.values[i])) {
+                    result[count++] = that.values[i];
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+        BitmapContainer that = (BitmapContainer) other;
+        BitmapContainer result = new BitmapContainer();
+        int count = 0;
+        for (int i = 0; i < words.length; i++) {
+            result.words[i] = words[i] & that.words[i];
+            count += Long.bitCount(result.words[i]);
+        }
+        result.cardinality = count;
+        return count > MAX_ARRAY_SIZE ? result : result.toArray();
+    }
+
+    @Override
+    Container or(Container other) {
+        BitmapContainer result = new BitmapContainer();
+        System.arraycopy(words, 0, result.words, 0, words.length);
+        result.cardinality = cardinality;
+        if (other instanceof ArrayContainer) {
+            ArrayContainer that = (ArrayContainer) other;
+            for (int i = 0; i < that.size; i++) {
+                result.set(that.values[i]);
+            }
+            return result;
+        }
+        BitmapContainer that = (BitmapContainer) other;
+        int count = 0;
+        for (int i = 0; i < words.length; i++) {
+            result.words[i] |= that.words[i];
+            count += Long.bitCount(result.words[i]);
+        }
+        result.cardinality = count;
+        return result;
+    }
+
+    void orInto(Container other) {
+        if (other instanceof ArrayContainer) {
+            ArrayContainer that = (ArrayContainer) other;
+            for (int i = 0; i < that.size; i++) {
+                set(that.values[i]);
+            }
+            return;
+        }
+        BitmapContainer that = (BitmapContainer) other;
+        int count = 0;
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= that.words[i];
+            count += Long.bitCount(words[i]);
+        }
+        cardinality = count;
+    }
+
+    @Override
+    void forEach(int high, IntConsumer action) {
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                action.accept(high | (i << 6) | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+
+    @Override
+    Container copy() {
+        BitmapContainer copy = new BitmapContainer();
+        System.arraycopy(words, 0, copy.words, 0, words.length);
+        copy.cardinality = cardinality;
+        return copy;
+    }
+
+    @Override
+    long memoryBytes() {
+        return 16L + words.length * 8L;
+    }
+
+    ArrayContainer toArray() {
+        char[] values = new char[cardinality];
+        int count = 0;
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                values[count++] = (char) ((i << 6) | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return new ArrayContainer(values, count);
+    }
+}
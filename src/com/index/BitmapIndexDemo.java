@@ -0,0 +1,58 @@
+package com.index;
+
+import com.java8.Item;
+import com.java8.Order;
+import com.java8.OrderRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+// bitmap index lookups against stream scans for a selective (0.1%) and a broad (50%) price filter
+public class BitmapIndexDemo {
+    private static final int ITEMS = 10_000_000;
+    private static final int MAX_PRICE = 100_000;
+
+    public static void main(String[] args) {
+        OrderRepository orderRepository = new OrderRepository();
+        OrderMembershipIndex membership = new OrderMembershipIndex(orderRepository.findAll());
+        List<Order> withItem1 = membership.select(membership.containingItem(1));
+        List<Order> withItems1And3 = membership.select(membership.containingAllItems(1, 3));
+        List<Order> ahmedsOrders = membership.select(RoaringBitmap.and(membership.ofCustomer("Ahmed"), membership.containingItem(5)));
+        System.out.println("Orders with item 1: " + withItem1.size() + ", with items 1 and 3: " + withItems1And3.size()
+                + ", Ahmed's orders with item 5: " + ahmedsOrders.size());
+
+        Random random = new Random(42);
+        List<Item> items = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(new Item(i, "Item" + (i % 1000), random.nextInt(MAX_PRICE)));
+        }
+        long start = System.nanoTime();
+        ItemPriceIndex index = new ItemPriceIndex(items, 100);
+        System.out.printf("index built in %d ms, %,d bytes%n", (System.nanoTime() - start) / 1_000_000, index.memoryBytes());
+
+        for (int round = 0; round < 3; round++) {
+            compare("selective 0.1%", items, index, 5_000, 5_099);
+            compare("broad 50%", items, index, 0, MAX_PRICE / 2 - 1);
+        }
+    }
+
+    private static void compare(String label, List<Item> items, ItemPriceIndex index, int minPrice, int maxPrice) {
+        long start = System.nanoTime();
+        List<Item> scanned = items.stream()
+                .filter(item -> item.getPrice() >= minPrice && item.getPrice() <= maxPrice)
+                .collect(Collectors.toList());
+        long scanNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<Item> indexed = index.select(index.priceBetween(minPrice, maxPrice));
+        long indexNanos = System.nanoTime() - start;
+
+        if (scanned.size() != indexed.size()) {
+            throw new IllegalStateException("index returned " + indexed.size() + " rows, scan " + scanned.size());
+        }
+        System.out.printf("%-15s %,9d rows: stream scan %6.2f ms, bitmap index %6.2f ms (%.1fx)%n", label, indexed.size(),
+                scanNanos / 1e6, indexNanos / 1e6, (double) scanNanos / indexNanos);
+    }
+}
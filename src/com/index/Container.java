@@ -0,0 +1,26 @@
+package com.index;
+
+import java.util.function.IntConsumer;
+
+// holds the low 16 bits of the values that share one high 16 bit key in a RoaringBitmap.
+// sparse chunks use a sorted array, dense ones (more than 4096 values) a 65536 bit bitmap,
+// whichever is smaller. operations return a new or updated container of the right kind
+abstract class Container {
+    static final int MAX_ARRAY_SIZE = 4096;
+
+    abstract Container add(char value);
+
+    abstract boolean contains(char value);
+
+    abstract int cardinality();
+
+    abstract Container and(Container other);
+
+    abstract Container or(Container other);
+
+    abstract void forEach(int high, IntConsumer action);
+
+    abstract Container copy();
+
+    abstract long memoryBytes();
+}
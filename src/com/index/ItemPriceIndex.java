@@ -0,0 +1,90 @@
+package com.index;
+
+import com.java8.Item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// price range index over a fixed list of items. items are rows numbered by their position,
+// every non-empty bucket of bucketWidth prices keeps a bitmap of its rows, found by binary search
+// over the sorted bucket numbers (like the keys of RoaringBitmap), so outlier prices cost nothing
+// for the empty buckets between them. a range query ORs the buckets it covers completely and only
+// checks the actual price for rows in the two edge buckets
+public class ItemPriceIndex {
+    private final List<Item> items;
+    private final int[] prices;
+    private final int bucketWidth;
+    // sorted, bucketKeys[i] is the bucket number of buckets[i]
+    private final int[] bucketKeys;
+    private final RoaringBitmap[] buckets;
+
+    public ItemPriceIndex(List<Item> items, int bucketWidth) {
+        if (bucketWidth < 1) {
+            throw new IllegalArgumentException("bucket width must be positive: " + bucketWidth);
+        }
+        this.items = items;
+        this.bucketWidth = bucketWidth;
+        this.prices = new int[items.size()];
+        TreeMap<Integer, RoaringBitmap> byBucket = new TreeMap<>();
+        for (int row = 0; row < prices.length; row++) {
+            prices[row] = items.get(row).getPrice();
+            byBucket.computeIfAbsent(bucketOf(prices[row]), bucket -> new RoaringBitmap()).add(row);
+        }
+        this.bucketKeys = new int[byBucket.size()];
+        this.buckets = new RoaringBitmap[byBucket.size()];
+        int i = 0;
+        for (Map.Entry<Integer, RoaringBitmap> entry : byBucket.entrySet()) {
+            bucketKeys[i] = entry.getKey();
+            buckets[i] = entry.getValue();
+            i++;
+        }
+    }
+
+    // rows whose price is in [minPrice, maxPrice]
+    public RoaringBitmap priceBetween(int minPrice, int maxPrice) {
+        if (minPrice > maxPrice) {
+            return new RoaringBitmap();
+        }
+        List<RoaringBitmap> parts = new ArrayList<>();
+        int lastBucket = bucketOf(maxPrice);
+        int first = Arrays.binarySearch(bucketKeys, bucketOf(minPrice));
+        for (int i = first < 0 ? -first - 1 : first; i < bucketKeys.length && bucketKeys[i] <= lastBucket; i++) {
+            // in long, the first or last bucket may reach past the int range
+            long bucketStart = (long) bucketKeys[i] * bucketWidth;
+            boolean covered = bucketStart >= minPrice && bucketStart + bucketWidth - 1 <= maxPrice;
+            if (covered) {
+                parts.add(buckets[i]);
+            } else {
+                RoaringBitmap edge = new RoaringBitmap();
+                buckets[i].forEach(row -> {
+                    if (prices[row] >= minPrice && prices[row] <= maxPrice) {
+                        edge.add(row);
+                    }
+                });
+                parts.add(edge);
+            }
+        }
+        return RoaringBitmap.orAll(parts);
+    }
+
+    public List<Item> select(RoaringBitmap rows) {
+        List<Item> selected = new ArrayList<>(rows.cardinality());
+        rows.forEach(row -> selected.add(items.get(row)));
+        return selected;
+    }
+
+    public long memoryBytes() {
+        long bytes = prices.length * 4L + bucketKeys.length * 4L;
+        for (RoaringBitmap bucket : buckets) {
+            bytes += bucket.memoryBytes();
+        }
+        return bytes;
+    }
+
+    private int bucketOf(int price) {
+        return Math.floorDiv(price, bucketWidth);
+    }
+}
@@ -0,0 +1,64 @@
+package com.index;
+
+import com.java8.Item;
+import com.java8.Order;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// which orders (rows numbered by position) contain a given item id or belong to a customer.
+// set predicates become bitmap and/or instead of a scan over every order's items.
+// the bitmaps handed out may be the index's own, treat them as read only
+public class OrderMembershipIndex {
+    private final List<Order> orders;
+    private final Map<Integer, RoaringBitmap> ordersByItem = new HashMap<>();
+    private final Map<String, RoaringBitmap> ordersByCustomer = new HashMap<>();
+
+    public OrderMembershipIndex(List<Order> orders) {
+        this.orders = orders;
+        for (int row = 0; row < orders.size(); row++) {
+            Order order = orders.get(row);
+            ordersByCustomer.computeIfAbsent(order.getCustomerName(), key -> new RoaringBitmap()).add(row);
+            if (order.getItems() != null) {
+                for (Item item : order.getItems()) {
+                    ordersByItem.computeIfAbsent(item.getId(), key -> new RoaringBitmap()).add(row);
+                }
+            }
+        }
+    }
+
+    public RoaringBitmap containingItem(int itemId) {
+        return ordersByItem.getOrDefault(itemId, new RoaringBitmap());
+    }
+
+    public RoaringBitmap ofCustomer(String customerName) {
+        return ordersByCustomer.getOrDefault(customerName, new RoaringBitmap());
+    }
+
+    public RoaringBitmap containingAnyItem(int... itemIds) {
+        List<RoaringBitmap> bitmaps = new ArrayList<>();
+        for (int itemId : itemIds) {
+            bitmaps.add(containingItem(itemId));
+        }
+        return RoaringBitmap.orAll(bitmaps);
+    }
+
+    public RoaringBitmap containingAllItems(int... itemIds) {
+        if (itemIds.length == 0) {
+            return new RoaringBitmap();
+        }
+        RoaringBitmap result = containingItem(itemIds[0]);
+        for (int i = 1; i < itemIds.length && !result.isEmpty(); i++) {
+            result = RoaringBitmap.and(result, containingItem(itemIds[i]));
+        }
+        return result;
+    }
+
+    public List<Order> select(RoaringBitmap rows) {
+        List<Order> selected = new ArrayList<>(rows.cardinality());
+        rows.forEach(row -> selected.add(orders.get(row)));
+        return selected;
+    }
+}
@@ -0,0 +1,162 @@
+package com.index;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+
+// compressed set of non-negative ints in the style of Roaring bitmaps: values are grouped by their
+// high 16 bits and each group keeps its low 16 bits in an array or a bitmap container.
+// and/or work container by container, so they skip whole 65536 value chunks the other side lacks
+public class RoaringBitmap {
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    public RoaringBitmap() {
+        this(new char[4], new Container[4], 0);
+    }
+
+    private RoaringBitmap(char[] keys, Container[] containers, int size) {
+        this.keys = keys;
+        this.containers = containers;
+        this.size = size;
+    }
+
+    public static RoaringBitmap of(int... values) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    public void add(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("only non-negative values are supported: " + value);
+        }
+        char high = (char) (value >>> 16);
+        int index = size > 0 && keys[size - 1] == high ? size - 1 : Arrays.binarySearch(keys, 0, size, high);
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, high, new ArrayContainer());
+        }
+        containers[index] = containers[index].add((char) value);
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public static RoaringBitmap and(RoaringBitmap left, RoaringBitmap right) {
+        RoaringBitmap result = new RoaringBitmap(new char[Math.min(left.size, right.size)],
+                new Container[Math.min(left.size, right.size)], 0);
+        int i = 0;
+        int j = 0;
+        while (i < left.size && j < right.size) {
+            if (left.keys[i] < right.keys[j]) {
+                i++;
+            } else if (left.keys[i] > right.keys[j]) {
+                j++;
+            } else {
+                Container container = left.containers[i].and(right.containers[j]);
+                if (container.cardinality() > 0) {
+                    result.keys[result.size] = left.keys[i];
+                    result.containers[result.size++] = container;
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public static RoaringBitmap or(RoaringBitmap left, RoaringBitmap right) {
+        RoaringBitmap result = new RoaringBitmap(new char[left.size + right.size],
+                new Container[left.size + right.size], 0);
+        int i = 0;
+        int j = 0;
+        while (i < left.size || j < right.size) {
+            if (j >= right.size || (i < left.size && left.keys[i] < right.keys[j])) {
+                result.keys[result.size] = left.keys[i];
+                result.containers[result.size++] = left.containers[i++].copy();
+            } else if (i >= left.size || left.keys[i] > right.keys[j]) {
+                result.keys[result.size] = right.keys[j];
+                result.containers[result.size++] = right.containers[j++].copy();
+            } else {
+                result.keys[result.size] = left.keys[i];
+                result.containers[result.size++] = left.containers[i++].or(right.containers[j++]);
+            }
+        }
+        return result;
+    }
+
+    // union of many bitmaps in one pass: every chunk is accumulated in a single bitmap container
+    // instead of building an intermediate result per input
+    public static RoaringBitmap orAll(List<RoaringBitmap> bitmaps) {
+        TreeMap<Character, BitmapContainer> chunks = new TreeMap<>();
+        for (RoaringBitmap bitmap : bitmaps) {
+            for (int i = 0; i < bitmap.size; i++) {
+                chunks.computeIfAbsent(bitmap.keys[i], key -> new BitmapContainer()).orInto(bitmap.containers[i]);
+            }
+        }
+        RoaringBitmap result = new RoaringBitmap(new char[chunks.size()], new Container[chunks.size()], 0);
+        for (Map.Entry<Character, BitmapContainer> chunk : chunks.entrySet()) {
+            BitmapContainer container = chunk.getValue();
+            result.keys[result.size] = chunk.getKey();
+            result.containers[result.size++] = container.cardinality() > Container.MAX_ARRAY_SIZE ? container : container.toArray();
+        }
+        return result;
+    }
+
+    // values in ascending order
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    public int[] toArray() {
+        int[] values = new int[cardinality()];
+        int[] count = new int[1];
+        forEach(value -> values[count[0]++] = value);
+        return values;
+    }
+
+    public long memoryBytes() {
+        long bytes = 32L + keys.length * 2L + containers.length * 8L;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i].memoryBytes();
+        }
+        return bytes;
+    }
+
+    private void insertContainer(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(4, size * 2));
+            containers = Arrays.copyOf(containers, Math.max(4, size * 2));
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+}
@@ -0,0 +1,97 @@
+package com.java8;
+
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// a lazy Optional: the lookup runs the first time somebody asks for the value and never again.
+// map and flatMap build new lazy lookups on top of this one without running anything,
+// so a chain of dependent lookups costs exactly one call per step no matter how often it is read
+public final class Lookup<T> {
+    private Supplier<Optional<T>> source;
+    private volatile Optional<T> result;
+
+    private Lookup(Supplier<Optional<T>> source) {
+        this.source = source;
+    }
+
+    public static <T> Lookup<T> of(Supplier<Optional<T>> source) {
+        return new Lookup<>(source);
+    }
+
+    public static <T> Lookup<T> ofNullable(Supplier<T> source) {
+        return new Lookup<>(() -> Optional.ofNullable(source.get()));
+    }
+
+    public static <T> Lookup<T> empty() {
+        Lookup<T> lookup = new Lookup<>(null);
+        lookup.result = Optional.empty();
+        return lookup;
+    }
+
+    public Optional<T> get() {
+        Optional<T> value = result;
+        if (value == null) {
+            synchronized (this) {
+                value = result;
+                if (value == null) {
+                    value = source.get();
+                    if (value == null) {
+                        value = Optional.empty();
+                    }
+                    result = value;
+                    source = null; // let the supplier and whatever it captured be collected
+                }
+            }
+        }
+        return value;
+    }
+
+    public boolean isResolved() {
+        return result != null;
+    }
+
+    public boolean isPresent() {
+        return get().isPresent();
+    }
+
+    public void ifPresent(Consumer<? super T> action) {
+        get().ifPresent(action);
+    }
+
+    public <R> Lookup<R> map(Function<? super T, ? extends R> mapper) {
+        return new Lookup<>(() -> get().map(mapper));
+    }
+
+    public <R> Lookup<R> flatMap(Function<? super T, Lookup<R>> mapper) {
+        return new Lookup<>(() -> {
+            Optional<T> value = get();
+            return value.isPresent() ? mapper.apply(value.get()).get() : Optional.empty();
+        });
+    }
+
+    public T orElse(T other) {
+        return get().orElse(other);
+    }
+
+    // the fallback is only built when the lookup came back empty
+    public T orElseGet(Supplier<? extends T> other) {
+        return get().orElseGet(other);
+    }
+
+    public T orElseThrow() {
+        return get().orElseThrow(() -> new NoSuchElementException("No value present"));
+    }
+
+    public <X extends Throwable> T orElseThrow(Supplier<? extends X> exceptionSupplier) throws X {
+        return get().orElseThrow(exceptionSupplier);
+    }
+
+    @Override
+    public String toString() {
+        Optional<T> value = result;
+        return value == null ? "Lookup[unresolved]" : "Lookup" + value;
+    }
+}
@@ -14,6 +14,8 @@ public class Main {
 
         forEach();
 
+        lazyLookup();
+
         optional();
 
     }
@@ -97,10 +99,25 @@ public class Main {
         orderOptional.ifPresent( x -> System.out.println(x.getId()) );
 
         //you can give a default value to use if order is not present
-        Order order = orderRepository.findOrderByIdWithOptional(19).orElse(new Order());
+        //orElse(new Order()) would create the order even when it is not needed, orElseGet only calls the supplier if empty
+        Order order = orderOptional.orElseGet(Order::new);
 
         //you can throw an exception if item is not present
-        Order order2 = orderRepository.findOrderByIdWithOptional(19).orElseThrow(() -> new RuntimeException("item not found"));
+        Order order2 = orderOptional.orElseThrow(() -> new RuntimeException("item not found"));
+    }
+
+    private static void lazyLookup() {
+        OrderRepository orderRepository = new OrderRepository();
+        //lookup is a lazy optional, the repository is only searched when the value is first needed and only once
+        OrderLookups orderLookups = new OrderLookups(orderRepository);
+        Lookup<Order> firstOrder = orderLookups.findOrderById(1);
+        Lookup<Order> secondOrder = orderLookups.findOrderById(2);
+        Lookup<String> customerName = firstOrder.map(Order::getCustomerName);
+        Lookup<Order> nextOrder = firstOrder.flatMap(x -> orderLookups.findOrderById(x.getId() + 2));
+
+        //both ids requested above are fetched together in one pass
+        System.out.println(customerName.orElse("unknown") + " " + secondOrder.orElseGet(Order::new).getCustomerName());
+        System.out.println(nextOrder.orElseGet(Order::new).getId() + " after " + orderLookups.getBatches() + " batches");
     }
 
 
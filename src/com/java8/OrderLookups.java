@@ -0,0 +1,64 @@
+package com.java8;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// hands out lazy order lookups and collects the requested ids. the first lookup that gets
+// resolved fetches every id requested so far in a single pass over the repository,
+// lookups requested later go into the next batch. fetched orders are kept in an LRU cache of
+// maxCached ids, a lookup whose id was evicted before it resolved is simply fetched again
+public class OrderLookups {
+    public static final int DEFAULT_MAX_CACHED = 10_000;
+
+    private final OrderRepository orderRepository;
+    private final Map<Integer, Order> fetched;
+    private Set<Integer> pending = new HashSet<>();
+    private int batches;
+
+    public OrderLookups(OrderRepository orderRepository) {
+        this(orderRepository, DEFAULT_MAX_CACHED);
+    }
+
+    public OrderLookups(OrderRepository orderRepository, int maxCached) {
+        if (maxCached < 0) {
+            throw new IllegalArgumentException("max cached must not be negative: " + maxCached);
+        }
+        this.orderRepository = orderRepository;
+        this.fetched = new LinkedHashMap<Integer, Order>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Order> eldest) {
+                return size() > maxCached;
+            }
+        };
+    }
+
+    public synchronized Lookup<Order> findOrderById(int id) {
+        if (!fetched.containsKey(id)) {
+            pending.add(id);
+        }
+        return Lookup.of(() -> resolve(id));
+    }
+
+    public synchronized int getBatches() {
+        return batches;
+    }
+
+    private synchronized Optional<Order> resolve(int id) {
+        if (!pending.contains(id) && fetched.containsKey(id)) {
+            return Optional.ofNullable(fetched.get(id));
+        }
+        Set<Integer> ids = pending;
+        pending = new HashSet<>();
+        ids.add(id);
+        Map<Integer, Order> found = orderRepository.findOrdersByIds(ids);
+        for (Integer pendingId : ids) {
+            fetched.put(pendingId, found.get(pendingId));
+        }
+        batches++;
+        // not from the cache, a cache smaller than the batch may have evicted id already
+        return Optional.ofNullable(found.get(id));
+    }
+}
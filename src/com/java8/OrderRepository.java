@@ -1,7 +1,10 @@
 package com.java8;
 
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class OrderRepository {
@@ -27,6 +30,10 @@ public class OrderRepository {
 
     }
 
+    public OrderRepository(List<Order> orders) {
+        this.orders = orders;
+    }
+
     public List<Order> findAll() {
         return orders;
     }
@@ -49,4 +56,14 @@ public class OrderRepository {
         return Optional.empty(); // Item not found
     }
 
+    public Map<Integer, Order> findOrdersByIds(Collection<Integer> targetIds) {
+        Map<Integer, Order> found = new HashMap<>();
+        for (Order order : orders) {
+            if (targetIds.contains(order.getId())) {
+                found.putIfAbsent(order.getId(), order);
+            }
+        }
+        return found;
+    }
+
 }
@@ -0,0 +1,134 @@
+package com.java8;
+
+import com.collection.list.PersistentVector;
+import com.collection.map.PersistentIntMap;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+// OrderRepository that accepts writes. every save() publishes a new immutable version built on
+// persistent structures, so it costs O(log n) and shares almost everything with the previous one.
+// readers never lock: findAll() hands out the current version and it will not change under them.
+// the Order objects themselves are shared between versions, treat them as read only once saved.
+// like OrderRepository the initial list may hold several orders with one id, all of them stay in
+// findAll() and lookups return the first. every order needs an id
+public class VersionedOrderRepository extends OrderRepository {
+    private final AtomicReference<Snapshot> current;
+
+    public VersionedOrderRepository() {
+        this(new OrderRepository().findAll());
+    }
+
+    public VersionedOrderRepository(List<Order> orders) {
+        super(List.of());
+        Snapshot snapshot = new Snapshot(PersistentVector.empty(), PersistentIntMap.empty(), 0);
+        for (Order order : orders) {
+            checkId(order);
+            snapshot = snapshot.load(order);
+        }
+        current = new AtomicReference<>(snapshot);
+    }
+
+    // inserts a new order or replaces the one with the same id, keeping its position
+    public Snapshot save(Order order) {
+        checkId(order);
+        while (true) {
+            Snapshot snapshot = current.get();
+            Snapshot next = snapshot.save(order);
+            if (current.compareAndSet(snapshot, next)) {
+                return next;
+            }
+        }
+    }
+
+    public Snapshot snapshot() {
+        return current.get();
+    }
+
+    @Override
+    public List<Order> findAll() {
+        return current.get().findAll();
+    }
+
+    @Override
+    public Order findOrderById(int targetId) {
+        return current.get().findOrderById(targetId);
+    }
+
+    @Override
+    public Optional<Order> findOrderByIdWithOptional(int targetId) {
+        return Optional.ofNullable(current.get().findOrderById(targetId));
+    }
+
+    @Override
+    public Map<Integer, Order> findOrdersByIds(Collection<Integer> targetIds) {
+        Snapshot snapshot = current.get();
+        Map<Integer, Order> found = new HashMap<>();
+        for (Integer targetId : targetIds) {
+            // a null id matches no order, as in OrderRepository
+            if (targetId == null) {
+                continue;
+            }
+            Order order = snapshot.findOrderById(targetId);
+            if (order != null) {
+                found.put(targetId, order);
+            }
+        }
+        return found;
+    }
+
+    private static void checkId(Order order) {
+        if (order == null || order.getId() == null) {
+            throw new IllegalArgumentException("order must have an id: " + order);
+        }
+    }
+
+    // one point in time view of the repository
+    public static final class Snapshot {
+        private final PersistentVector<Order> orders;
+        private final PersistentIntMap<Integer> positionById;
+        private final long version;
+
+        private Snapshot(PersistentVector<Order> orders, PersistentIntMap<Integer> positionById, long version) {
+            this.orders = orders;
+            this.positionById = positionById;
+            this.version = version;
+        }
+
+        public List<Order> findAll() {
+            return orders;
+        }
+
+        public Order findOrderById(int targetId) {
+            Integer position = positionById.get(targetId);
+            return position == null ? null : orders.get(position);
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public int size() {
+            return orders.size();
+        }
+
+        // appends the order, an id already present keeps pointing at its first order
+        private Snapshot load(Order order) {
+            PersistentIntMap<Integer> index = positionById.get(order.getId()) == null
+                    ? positionById.put(order.getId(), orders.size()) : positionById;
+            return new Snapshot(orders.plus(order), index, version + 1);
+        }
+
+        private Snapshot save(Order order) {
+            Integer position = positionById.get(order.getId());
+            if (position != null) {
+                return new Snapshot(orders.with(position, order), positionById, version + 1);
+            }
+            return new Snapshot(orders.plus(order), positionById.put(order.getId(), orders.size()), version + 1);
+        }
+    }
+}
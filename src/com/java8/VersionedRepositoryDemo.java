@@ -0,0 +1,88 @@
+package com.java8;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// compares a persistent snapshot per write against copying the whole list per write
+public class VersionedRepositoryDemo {
+    private static final int ORDERS = 1_000_000;
+    private static final int WRITES = 200_000;
+
+    public static void main(String[] args) throws Exception {
+        List<Order> initial = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            initial.add(order(i));
+        }
+        VersionedOrderRepository repository = new VersionedOrderRepository(initial);
+
+        // snapshot creation: every write produces a new version
+        long start = System.nanoTime();
+        for (int i = 0; i < WRITES; i++) {
+            repository.save(order(i % 2 == 0 ? ORDERS + i : i));
+        }
+        long persistentNanos = System.nanoTime() - start;
+
+        List<Order> copy = new ArrayList<>(initial);
+        int copies = 200;
+        start = System.nanoTime();
+        for (int i = 0; i < copies; i++) {
+            copy = new ArrayList<>(copy);
+            copy.add(order(ORDERS + i));
+        }
+        long copyNanos = System.nanoTime() - start;
+        System.out.printf("new version per write: persistent %.0f ns, full list copy %.0f ns%n",
+                (double) persistentNanos / WRITES, (double) copyNanos / copies);
+
+        // read throughput while a writer thread keeps publishing versions
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong writes = new AtomicLong();
+        Thread writer = new Thread(() -> {
+            int id = 0;
+            while (running.get()) {
+                repository.save(order(id++ % (ORDERS * 2)));
+                writes.incrementAndGet();
+            }
+        });
+        writer.start();
+        long reads = 0;
+        long checksum = 0;
+        start = System.nanoTime();
+        while (System.nanoTime() - start < 2_000_000_000L) {
+            VersionedOrderRepository.Snapshot snapshot = repository.snapshot();
+            for (int i = 0; i < 1000; i++) {
+                Order order = snapshot.findOrderById((int) (reads++ * 7919 % ORDERS));
+                checksum += order.getId();
+            }
+        }
+        running.set(false);
+        writer.join();
+        System.out.printf("reads during writes: %,d lookups/s with %,d concurrent writes/s (checksum %d)%n",
+                reads / 2, writes.get() / 2, checksum & 1);
+
+        // memory per version: keep many versions alive and compare with keeping one
+        long baseline = usedHeap();
+        List<VersionedOrderRepository.Snapshot> versions = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            versions.add(repository.save(order(i * 37 % ORDERS)));
+        }
+        long retained = usedHeap() - baseline;
+        System.out.printf("memory per retained version: %,d bytes (one full copy would be %,d bytes)%n",
+                retained / versions.size(), (long) repository.snapshot().size() * 4);
+        System.out.println("oldest retained version: " + versions.get(0).getVersion());
+    }
+
+    private static Order order(int id) {
+        return new Order(id, Collections.emptyList(), "Customer" + id % 100);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,66 @@
+package com.metrics;
+
+import com.java8.Order;
+import com.java8.OrderRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+// OrderRepository that times every lookup and counts hits and misses
+public class InstrumentedOrderRepository extends OrderRepository {
+    private final MetricsRegistry registry;
+    private final Timer findAllTimer;
+    private final Timer findByIdTimer;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    public InstrumentedOrderRepository() {
+        this(MetricsRegistry.global());
+    }
+
+    public InstrumentedOrderRepository(MetricsRegistry registry) {
+        this(new OrderRepository().findAll(), registry);
+    }
+
+    public InstrumentedOrderRepository(List<Order> orders, MetricsRegistry registry) {
+        super(orders);
+        this.registry = registry;
+        this.findAllTimer = registry.timer("orderRepository.findAll");
+        this.findByIdTimer = registry.timer("orderRepository.findOrderById");
+        this.hits = registry.counter("orderRepository.findOrderById.hit");
+        this.misses = registry.counter("orderRepository.findOrderById.miss");
+    }
+
+    @Override
+    public List<Order> findAll() {
+        long start = findAllTimer.start();
+        List<Order> orders = super.findAll();
+        findAllTimer.stop(start);
+        return orders;
+    }
+
+    @Override
+    public Order findOrderById(int targetId) {
+        long start = findByIdTimer.start();
+        Order order = super.findOrderById(targetId);
+        findByIdTimer.stop(start);
+        countLookup(order != null);
+        return order;
+    }
+
+    @Override
+    public Optional<Order> findOrderByIdWithOptional(int targetId) {
+        long start = findByIdTimer.start();
+        Optional<Order> order = super.findOrderByIdWithOptional(targetId);
+        findByIdTimer.stop(start);
+        countLookup(order.isPresent());
+        return order;
+    }
+
+    private void countLookup(boolean found) {
+        if (registry.isEnabled()) {
+            (found ? hits : misses).increment();
+        }
+    }
+}
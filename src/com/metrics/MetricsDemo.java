@@ -0,0 +1,72 @@
+package com.metrics;
+
+import com.java8.Item;
+import com.java8.Order;
+import com.java8.OrderRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// runs the StreamsDemo aggregations with timers around them, publishes the registry over JMX
+// (open jconsole and look under com.metrics) and measures what the instrumentation costs
+public class MetricsDemo {
+    private static final int ITERATIONS = 20_000_000;
+
+    public static void main(String[] args) {
+        MetricsRegistry registry = MetricsRegistry.global();
+        registry.registerMBean("global");
+
+        OrderRepository orderRepository = new InstrumentedOrderRepository(registry);
+        Timer toMapTimer = registry.timer("streams.ordersById");
+        Timer flatMapTimer = registry.timer("streams.allItems");
+
+        for (int i = 0; i < 10_000; i++) {
+            List<Order> orders = orderRepository.findAll();
+
+            long start = toMapTimer.start();
+            Map<Integer, List<Item>> map = orders.stream()
+                    .collect(Collectors.toMap(order -> order.getId(), order -> order.getItems()));
+            toMapTimer.stop(start);
+
+            start = flatMapTimer.start();
+            List<Item> items = orders.stream()
+                    .flatMap(order -> order.getItems().stream())
+                    .collect(Collectors.toList());
+            flatMapTimer.stop(start);
+
+            orderRepository.findOrderById(i % 10);
+        }
+        System.out.println("Counters: " + registry.getCounters());
+        registry.getTimers().forEach((name, snapshot) -> System.out.println(name + " " + snapshot));
+
+        // overhead: the same lookups against a plain repository, then instrumented on and off
+        OrderRepository plain = new OrderRepository();
+        MetricsRegistry benchmarkRegistry = new MetricsRegistry();
+        OrderRepository instrumented = new InstrumentedOrderRepository(benchmarkRegistry);
+        for (int round = 0; round < 3; round++) {
+            long plainNanos = lookups(plain);
+            benchmarkRegistry.setEnabled(false);
+            long offNanos = lookups(instrumented);
+            benchmarkRegistry.setEnabled(true);
+            long onNanos = lookups(instrumented);
+            System.out.printf("round %d: plain %.2f ns/op, metrics off %.2f ns/op, metrics on %.2f ns/op%n", round,
+                    (double) plainNanos / ITERATIONS, (double) offNanos / ITERATIONS, (double) onNanos / ITERATIONS);
+        }
+    }
+
+    private static long lookups(OrderRepository repository) {
+        long start = System.nanoTime();
+        long found = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            if (repository.findOrderById(i & 7) != null) {
+                found++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (found == 0) {
+            System.out.println("nothing found");
+        }
+        return elapsed;
+    }
+}
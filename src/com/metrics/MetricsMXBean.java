@@ -0,0 +1,19 @@
+package com.metrics;
+
+import java.util.Map;
+
+public interface MetricsMXBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    int getSampleRate();
+
+    void setSampleRate(int sampleRate);
+
+    Map<String, Long> getCounters();
+
+    Map<String, TimerSnapshot> getTimers();
+
+    void reset();
+}
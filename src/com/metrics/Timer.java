@@ -0,0 +1,72 @@
+package com.metrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// times one named operation. the start/stop pair is the allocation free path for hot code:
+//     long start = timer.start();
+//     ... work ...
+//     timer.stop(start);
+// every call is counted but only one in sampleRate calls reads the clock, System.nanoTime()
+// costs tens of nanoseconds on some machines and would dominate cheap lookups otherwise
+public class Timer {
+    private final String name;
+    private final MetricsRegistry registry;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final LongAdder calls = new LongAdder();
+
+    Timer(String name, MetricsRegistry registry) {
+        this.name = name;
+        this.registry = registry;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long start() {
+        if (!registry.isEnabled()) {
+            return 0;
+        }
+        calls.increment();
+        if ((ThreadLocalRandom.current().nextInt() & registry.getSampleMask()) != 0) {
+            return 0;
+        }
+        return System.nanoTime();
+    }
+
+    public void stop(long start) {
+        if (start != 0) {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    public <T> T time(Supplier<T> operation) {
+        long start = start();
+        try {
+            return operation.get();
+        } finally {
+            stop(start);
+        }
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public void reset() {
+        calls.reset();
+        histogram.reset();
+    }
+
+    public TimerSnapshot snapshot() {
+        return new TimerSnapshot(calls.sum(), histogram.getCount(), histogram.getMean(),
+                histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(99),
+                histogram.getValueAtPercentile(99.9), histogram.getMax());
+    }
+}
@@ -0,0 +1,64 @@
+package com.metrics;
+
+// point in time view of a timer, all latencies are in nanoseconds.
+// calls is exact, the latency figures come from the sampled calls
+public class TimerSnapshot {
+    private final long calls;
+    private final long count;
+    private final double mean;
+    private final long p50;
+    private final long p99;
+    private final long p999;
+    private final long max;
+
+    public TimerSnapshot(long calls, long count, double mean, long p50, long p99, long p999, long max) {
+        this.calls = calls;
+        this.count = count;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p99 = p99;
+        this.p999 = p999;
+        this.max = max;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public long getP999() {
+        return p999;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "TimerSnapshot{" +
+                "calls=" + calls +
+                ", count=" + count +
+                ", mean=" + String.format("%.1f", mean) +
+                ", p50=" + p50 +
+                ", p99=" + p99 +
+                ", p999=" + p999 +
+                ", max=" + max +
+                '}';
+    }
+}
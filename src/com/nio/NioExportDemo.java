@@ -0,0 +1,119 @@
+package com.nio;
+
+import com.java8.Item;
+import com.java8.Order;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.InetSocketAddress;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// dumps orders to disk, ships the dump over loopback with transferTo and decodes it back
+// usage: java com.nio.NioExportDemo [dumpSizeInMB, default 5120]
+// the same batch of orders is written repeatedly until the dump reaches the requested size,
+// so the heap only ever holds one batch no matter how large the dump is
+public class NioExportDemo {
+    private static final int BATCH_ORDERS = 100_000;
+
+    public static void main(String[] args) throws Exception {
+        long targetBytes = (args.length > 0 ? Long.parseLong(args[0]) : 5120) * 1024 * 1024;
+        List<Order> batch = generateOrders(BATCH_ORDERS);
+        OrderChannelExporter exporter = new OrderChannelExporter();
+        Path dump = Files.createTempFile("orders", ".bin");
+        try {
+            resetPeakHeap();
+            long start = System.nanoTime();
+            long written = 0;
+            try (FileChannel channel = FileChannel.open(dump, StandardOpenOption.WRITE)) {
+                while (written < targetBytes) {
+                    written += exporter.export(batch, channel);
+                }
+                channel.force(false);
+            }
+            report("export to disk", written, System.nanoTime() - start);
+
+            resetPeakHeap();
+            start = System.nanoTime();
+            long[] decoded = new long[1];
+            try (FileChannel channel = FileChannel.open(dump, StandardOpenOption.READ)) {
+                exporter.importFrom(channel, order -> decoded[0]++);
+            }
+            report("import from disk (" + decoded[0] + " orders)", written, System.nanoTime() - start);
+
+            resetPeakHeap();
+            start = System.nanoTime();
+            long received = sendOverLoopback(exporter, dump);
+            report("transferTo over loopback + decode (" + received + " orders)", written, System.nanoTime() - start);
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    private static long sendOverLoopback(OrderChannelExporter exporter, Path dump) throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress("127.0.0.1", 0));
+            Future<Long> receiver = executor.submit(() -> {
+                try (SocketChannel socket = server.accept()) {
+                    long[] count = new long[1];
+                    exporter.importFrom(socket, order -> count[0]++);
+                    return count[0];
+                }
+            });
+            try (SocketChannel client = SocketChannel.open(server.getLocalAddress())) {
+                exporter.sendFile(dump, client);
+            }
+            return receiver.get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static List<Order> generateOrders(int count) {
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<Item> items = new ArrayList<>();
+            for (int j = 0; j < 1 + i % 5; j++) {
+                items.add(new Item(j, "Item" + j, 100 + j * 50));
+            }
+            orders.add(new Order(i, items, "Customer" + i % 1000));
+        }
+        return orders;
+    }
+
+    private static void report(String label, long bytes, long nanos) {
+        double seconds = nanos / 1e9;
+        System.out.printf("%-50s %,d bytes in %.2fs -> %.2f GB/s, peak heap %,d MB%n",
+                label, bytes, seconds, bytes / seconds / 1e9, peakHeap() / (1024 * 1024));
+    }
+
+    private static void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
@@ -0,0 +1,272 @@
+package com.nio;
+
+import com.java8.Order;
+import com.java8.OrderRepository;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+// streams the orders of a repository to any channel (FileChannel, SocketChannel, ...) in large chunks
+// using a single reusable direct buffer, so a dump never has to be staged on the heap.
+// the buffer belongs to the exporter, so one exporter must not be shared between threads
+public class OrderChannelExporter {
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+    // far above any real order, a bigger length prefix on import means the stream is corrupt
+    public static final int MAX_RECORD_LENGTH = 1 << 26;
+
+    private final int chunkSize;
+    private ByteBuffer exportBuffer;
+
+    public OrderChannelExporter() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    public OrderChannelExporter(int chunkSize) {
+        if (chunkSize < 64) {
+            throw new IllegalArgumentException("chunk size too small: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    public long export(OrderRepository repository, WritableByteChannel channel) throws IOException {
+        return export(repository.findAll(), channel);
+    }
+
+    public long export(List<Order> orders, WritableByteChannel channel) throws IOException {
+        // allocated on the first export only, an exporter used just for imports never holds it
+        if (exportBuffer == null) {
+            exportBuffer = ByteBuffer.allocateDirect(chunkSize);
+        }
+        ByteBuffer buffer = exportBuffer.clear();
+        long written = 0;
+        for (Order order : orders) {
+            if (buffer.remaining() < OrderCodec.LENGTH_PREFIX) {
+                written += flush(buffer, channel);
+            }
+            int start = buffer.position();
+            try {
+                OrderCodec.encode(order, buffer);
+            } catch (BufferOverflowException e) {
+                buffer.position(start);
+                written += flush(buffer, channel);
+                written += writeRecord(order, buffer, channel);
+            }
+        }
+        written += flush(buffer, channel);
+        return written;
+    }
+
+    public long exportToFile(OrderRepository repository, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return export(repository, channel);
+        }
+    }
+
+    // file -> socket without copying through user space, transferTo may send less than asked so we loop
+    public long sendFile(Path file, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+            return position;
+        }
+    }
+
+    // pipelined: a reader thread fills two chunk buffers in turn while this thread decodes, so the
+    // next read overlaps decoding the previous chunk. complete records are decoded straight out of a
+    // direct buffer, the partial tail is kept at its front until the next chunk completes it
+    public long importFrom(ReadableByteChannel channel, Consumer<Order> consumer) throws IOException {
+        ChunkReader reader = new ChunkReader(channel, chunkSize);
+        Thread thread = new Thread(reader, "order-import-reader");
+        thread.setDaemon(true);
+        thread.start();
+        try {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(chunkSize);
+            long count = 0;
+            for (ByteBuffer chunk = reader.next(); chunk != null; chunk = reader.next()) {
+                while (chunk.hasRemaining()) {
+                    int n = Math.min(chunk.remaining(), buffer.remaining());
+                    buffer.put(chunk.slice().limit(n));
+                    chunk.position(chunk.position() + n);
+                    buffer.flip();
+                    count += decodeRecords(buffer, consumer);
+                    buffer = carryOver(buffer);
+                }
+                reader.recycle(chunk);
+            }
+            if (buffer.position() > 0) {
+                throw new IOException("truncated order record at end of stream");
+            }
+            return count;
+        } finally {
+            reader.stop();
+        }
+    }
+
+    public OrderRepository importRepository(ReadableByteChannel channel) throws IOException {
+        List<Order> orders = new ArrayList<>();
+        importFrom(channel, orders::add);
+        return new OrderRepository(orders);
+    }
+
+    public OrderRepository importFromFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return importRepository(channel);
+        }
+    }
+
+    private long writeRecord(Order order, ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        int size = OrderCodec.encodedSize(order);
+        if (size - OrderCodec.LENGTH_PREFIX > MAX_RECORD_LENGTH) {
+            throw new IllegalArgumentException("order " + order.getId() + " too large to export: " + size + " bytes");
+        }
+        int start = buffer.position();
+        try {
+            OrderCodec.encode(order, buffer);
+            return 0;
+        } catch (BufferOverflowException e) {
+            buffer.position(start);
+        }
+        ByteBuffer large = ByteBuffer.allocate(size);
+        OrderCodec.encode(order, large);
+        return flush(large, channel);
+    }
+
+    // every complete record from position on, the buffer is left at the first incomplete one
+    private static long decodeRecords(ByteBuffer buffer, Consumer<Order> consumer) throws IOException {
+        long count = 0;
+        int limit = buffer.limit();
+        while (buffer.remaining() >= OrderCodec.LENGTH_PREFIX) {
+            int length = recordLength(buffer);
+            if (buffer.remaining() - OrderCodec.LENGTH_PREFIX < length) {
+                break;
+            }
+            int start = buffer.position() + OrderCodec.LENGTH_PREFIX;
+            // decode may only see its own record, so a corrupt one cannot run into the next
+            buffer.limit(start + length).position(start);
+            Order order;
+            try {
+                order = OrderCodec.decode(buffer);
+            } catch (BufferUnderflowException e) {
+                throw new IOException("corrupt order record: contents run past its length " + length);
+            }
+            if (buffer.hasRemaining()) {
+                throw new IOException("corrupt order record: " + buffer.remaining() + " of its " + length + " bytes unused");
+            }
+            buffer.limit(limit);
+            consumer.accept(order);
+            count++;
+        }
+        return count;
+    }
+
+    // moves the partial record to the front, into a bigger buffer if that one record does not fit
+    private static ByteBuffer carryOver(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() >= OrderCodec.LENGTH_PREFIX) {
+            int needed = OrderCodec.LENGTH_PREFIX + recordLength(buffer);
+            if (needed > buffer.capacity()) {
+                return ByteBuffer.allocateDirect(needed).put(buffer);
+            }
+        }
+        return buffer.compact();
+    }
+
+    private static int recordLength(ByteBuffer buffer) throws IOException {
+        int length = buffer.getInt(buffer.position());
+        if (length < 0 || length > MAX_RECORD_LENGTH) {
+            throw new IOException("corrupt order record: length " + length);
+        }
+        return length;
+    }
+
+    private static long flush(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+        buffer.clear();
+        return written;
+    }
+
+    // reads the channel on its own thread into two buffers taken in turn. a chunk goes back to the
+    // reader once it is decoded, so at most one chunk is read ahead
+    private static final class ChunkReader implements Runnable {
+        private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+        private final ReadableByteChannel channel;
+        // room for both buffers and END, so neither side ever waits to hand one over
+        private final BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(3);
+        private final BlockingQueue<ByteBuffer> filled = new ArrayBlockingQueue<>(3);
+        private volatile Throwable failure;
+
+        private ChunkReader(ReadableByteChannel channel, int chunkSize) {
+            this.channel = channel;
+            free.add(ByteBuffer.allocateDirect(chunkSize));
+            free.add(ByteBuffer.allocateDirect(chunkSize));
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (ByteBuffer chunk = free.take(); chunk != END; chunk = free.take()) {
+                    chunk.clear();
+                    if (channel.read(chunk) == -1) {
+                        return;
+                    }
+                    filled.add(chunk.flip());
+                }
+            } catch (Throwable e) {
+                failure = e;
+            } finally {
+                filled.offer(END);
+            }
+        }
+
+        // the next chunk read, null at the end of the stream
+        private ByteBuffer next() throws IOException {
+            ByteBuffer chunk;
+            try {
+                chunk = filled.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("order import interrupted");
+            }
+            if (chunk != END) {
+                return chunk;
+            }
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            }
+            if (failure != null) {
+                throw new IOException("reading orders failed", failure);
+            }
+            return null;
+        }
+
+        private void recycle(ByteBuffer chunk) {
+            free.add(chunk);
+        }
+
+        // lets a reader still waiting for a buffer finish, a read already under way completes first
+        private void stop() {
+            free.offer(END);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.nio;
+
+import com.java8.Item;
+import com.java8.Order;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// binary layout of one order record:
+// [int recordLength][byte idPresent][int id][short nameLength][name][int itemCount] then per item [int id][short nameLength][name][int price]
+// a length of -1 means the field was null, a null id is written as idPresent 0 so every int stays a valid id
+public class OrderCodec {
+    public static final int LENGTH_PREFIX = Integer.BYTES;
+
+    private OrderCodec() {
+    }
+
+    // also checks the order can be encoded at all, with the same IllegalArgumentException encode throws.
+    // allocation free, strings are measured without encoding them
+    public static int encodedSize(Order order) {
+        int size = LENGTH_PREFIX + Byte.BYTES + Integer.BYTES + stringSize(order.getCustomerName()) + Integer.BYTES;
+        if (order.getItems() != null) {
+            for (Item item : order.getItems()) {
+                checkItem(item, order);
+                size += Integer.BYTES + stringSize(item.getName()) + Integer.BYTES;
+            }
+        }
+        return size;
+    }
+
+    // throws BufferOverflowException if the record does not fit, the caller resets and flushes
+    public static void encode(Order order, ByteBuffer buffer) {
+        if (buffer.remaining() < LENGTH_PREFIX) {
+            throw new BufferOverflowException();
+        }
+        int start = buffer.position();
+        buffer.position(start + LENGTH_PREFIX);
+        buffer.put((byte) (order.getId() == null ? 0 : 1));
+        buffer.putInt(order.getId() == null ? 0 : order.getId());
+        putString(order.getCustomerName(), buffer);
+        List<Item> items = order.getItems();
+        if (items == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(items.size());
+            for (Item item : items) {
+                checkItem(item, order);
+                buffer.putInt(item.getId());
+                putString(item.getName(), buffer);
+                buffer.putInt(item.getPrice());
+            }
+        }
+        buffer.putInt(start, buffer.position() - start - LENGTH_PREFIX);
+    }
+
+    // expects the whole record (length prefix already consumed) to be in the buffer
+    public static Order decode(ByteBuffer buffer) {
+        boolean idPresent = buffer.get() != 0;
+        int id = buffer.getInt();
+        String customerName = getString(buffer);
+        int itemCount = buffer.getInt();
+        List<Item> items = null;
+        if (itemCount >= 0) {
+            // a corrupt count must not size the list, an item takes at least 10 bytes
+            items = new ArrayList<>(Math.min(itemCount, buffer.remaining() / 10));
+            for (int i = 0; i < itemCount; i++) {
+                int itemId = buffer.getInt();
+                String name = getString(buffer);
+                items.add(new Item(itemId, name, buffer.getInt()));
+            }
+        }
+        Order order = new Order(id, items, customerName);
+        if (!idPresent) {
+            order.setId(null);
+        }
+        return order;
+    }
+
+    private static void checkItem(Item item, Order order) {
+        if (item == null) {
+            throw new IllegalArgumentException("null item in order " + order.getId());
+        }
+    }
+
+    private static int stringSize(String value) {
+        if (value == null) {
+            return Short.BYTES;
+        }
+        int length = utf8Length(value);
+        if (length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("string too long to encode: " + length + " bytes");
+        }
+        return Short.BYTES + length;
+    }
+
+    // the length of value.getBytes(UTF_8) without the copy, an unpaired surrogate encodes as '?'
+    private static int utf8Length(String value) {
+        int chars = value.length();
+        int bytes = chars;
+        for (int i = 0; i < chars; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                bytes += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < chars && Character.isLowSurrogate(value.charAt(i + 1))) {
+                // two chars, four bytes
+                bytes += 2;
+                i++;
+            } else if (!Character.isSurrogate(c)) {
+                bytes += 2;
+            }
+        }
+        return bytes;
+    }
+
+    private static void putString(String value, ByteBuffer buffer) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("string too long to encode: " + bytes.length + " bytes");
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
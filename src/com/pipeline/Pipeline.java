@@ -0,0 +1,234 @@
+package com.pipeline;
+
+import com.java8.ExampleInterface;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+// pushes messages through a chain of stages, each one a plain functional interface running on its
+// own threads with a bounded queue in front of it:
+//
+//     Pipeline<Order> pipeline = Pipeline.<Order>builder()
+//             .filter("validation", 2, order -> !order.getItems().isEmpty())
+//             .map("enrichment", 2, order -> new PricedOrder(order))
+//             .sink("aggregation", 1, totals::add);
+//     pipeline.submit(order);
+//     pipeline.close();
+//
+// an ExampleInterface handler can end a pipeline too, it gets every message as a String:
+//     .sink("logging", 1, Order::getCustomerName, System.out::println)
+//
+// submit blocks while the first queue is full, after close() it throws IllegalStateException.
+// with more than one thread in a stage the order of messages is not kept. pass a virtual thread
+// factory (Thread.ofVirtual().factory()) on Java 21+. a builder can build any number of pipelines,
+// each gets stages and threads of its own
+public class Pipeline<I> implements AutoCloseable {
+    private final List<Stage> stages;
+    private final int batchSize;
+    // submitters share it, close takes it alone so no message is queued behind the stop
+    private final ReadWriteLock closing = new ReentrantReadWriteLock();
+    private boolean closed;
+
+    private Pipeline(List<Stage> stages, int batchSize) {
+        this.stages = stages;
+        this.batchSize = batchSize;
+        for (int i = 0; i < stages.size() - 1; i++) {
+            stages.get(i).setNext(stages.get(i + 1));
+        }
+        for (Stage stage : stages) {
+            stage.start();
+        }
+    }
+
+    public static <T> Builder<T, T> builder() {
+        return new Builder<>(new ArrayList<>(), 1024, 256, Executors.defaultThreadFactory());
+    }
+
+    public void submit(I message) throws InterruptedException {
+        Object[] batch = {Objects.requireNonNull(message)};
+        closing.readLock().lockInterruptibly();
+        try {
+            checkOpen();
+            stages.get(0).put(batch);
+        } finally {
+            closing.readLock().unlock();
+        }
+    }
+
+    // cheaper per message than submit, the messages enter the pipeline in batches
+    public void submitAll(Collection<? extends I> messages) throws InterruptedException {
+        closing.readLock().lockInterruptibly();
+        try {
+            checkOpen();
+            submitBatches(messages);
+        } finally {
+            closing.readLock().unlock();
+        }
+    }
+
+    private void submitBatches(Collection<? extends I> messages) throws InterruptedException {
+        Object[] batch = new Object[Math.min(batchSize, messages.size())];
+        int count = 0;
+        for (I message : messages) {
+            batch[count++] = Objects.requireNonNull(message);
+            if (count == batch.length) {
+                stages.get(0).put(batch);
+                batch = new Object[batch.length];
+                count = 0;
+            }
+        }
+        if (count > 0) {
+            stages.get(0).put(Arrays.copyOf(batch, count));
+        }
+    }
+
+    public List<StageStats> stats() {
+        List<StageStats> stats = new ArrayList<>();
+        for (Stage stage : stages) {
+            stats.add(new StageStats(stage.getName(), stage.getProcessed(), stage.getFailed(), stage.getQueued()));
+        }
+        return stats;
+    }
+
+    // stops accepting work, lets every queued message reach the end and waits for it. closing again
+    // only waits. an interrupt ends the wait early, the flag is set again for the caller to see
+    @Override
+    public void close() {
+        closing.writeLock().lock();
+        try {
+            if (!closed) {
+                closed = true;
+                stages.get(0).stop();
+            }
+        } finally {
+            closing.writeLock().unlock();
+        }
+        try {
+            stages.get(stages.size() - 1).awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("pipeline is closed");
+        }
+    }
+
+    // I is what the pipeline accepts, T is what the last stage added so far produces.
+    // queueCapacity, batchSize and threadFactory apply to the stages added after them.
+    // a builder only describes the stages, sink() creates and starts them
+    public static final class Builder<I, T> {
+        private final List<StageSpec> stages;
+        private final int queueCapacity;
+        private final int batchSize;
+        private final ThreadFactory threadFactory;
+
+        private Builder(List<StageSpec> stages, int queueCapacity, int batchSize, ThreadFactory threadFactory) {
+            this.stages = stages;
+            this.queueCapacity = queueCapacity;
+            this.batchSize = batchSize;
+            this.threadFactory = threadFactory;
+        }
+
+        // queue capacity is counted in batches, not messages
+        public Builder<I, T> queueCapacity(int queueCapacity) {
+            if (queueCapacity < 1) {
+                throw new IllegalArgumentException("queue capacity must be positive: " + queueCapacity);
+            }
+            return new Builder<>(stages, queueCapacity, batchSize, threadFactory);
+        }
+
+        public Builder<I, T> batchSize(int batchSize) {
+            if (batchSize < 1) {
+                throw new IllegalArgumentException("batch size must be positive: " + batchSize);
+            }
+            return new Builder<>(stages, queueCapacity, batchSize, threadFactory);
+        }
+
+        public Builder<I, T> threadFactory(ThreadFactory threadFactory) {
+            return new Builder<>(stages, queueCapacity, batchSize, Objects.requireNonNull(threadFactory));
+        }
+
+        @SuppressWarnings("unchecked")
+        public <R> Builder<I, R> map(String name, int threads, Function<? super T, ? extends R> function) {
+            return add(name, threads, message -> function.apply((T) message));
+        }
+
+        @SuppressWarnings("unchecked")
+        public Builder<I, T> filter(String name, int threads, Predicate<? super T> predicate) {
+            return add(name, threads, message -> predicate.test((T) message) ? message : null);
+        }
+
+        @SuppressWarnings("unchecked")
+        public Builder<I, T> peek(String name, int threads, Consumer<? super T> consumer) {
+            return add(name, threads, message -> {
+                consumer.accept((T) message);
+                return message;
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        public Pipeline<I> sink(String name, int threads, Consumer<? super T> consumer) {
+            Builder<I, T> last = add(name, threads, message -> {
+                consumer.accept((T) message);
+                return null;
+            });
+            List<Stage> created = new ArrayList<>(last.stages.size());
+            for (StageSpec spec : last.stages) {
+                created.add(spec.create());
+            }
+            return new Pipeline<>(created, batchSize);
+        }
+
+        // ends the pipeline in an ExampleInterface handler, describe turns each message into its text
+        public Pipeline<I> sink(String name, int threads, Function<? super T, String> describe, ExampleInterface handler) {
+            Objects.requireNonNull(handler);
+            return sink(name, threads, message -> handler.exampleMethod(describe.apply(message)));
+        }
+
+        private <R> Builder<I, R> add(String name, int threads, Stage.Handler handler) {
+            if (threads < 1) {
+                throw new IllegalArgumentException("stage " + name + " needs at least one thread");
+            }
+            List<StageSpec> copy = new ArrayList<>(stages);
+            copy.add(new StageSpec(name, threads, queueCapacity, batchSize, handler, threadFactory));
+            return new Builder<>(copy, queueCapacity, batchSize, threadFactory);
+        }
+    }
+
+    private static final class StageSpec {
+        private final String name;
+        private final int threads;
+        private final int queueCapacity;
+        private final int batchSize;
+        private final Stage.Handler handler;
+        private final ThreadFactory threadFactory;
+
+        private StageSpec(String name, int threads, int queueCapacity, int batchSize, Stage.Handler handler,
+                          ThreadFactory threadFactory) {
+            this.name = name;
+            this.threads = threads;
+            this.queueCapacity = queueCapacity;
+            this.batchSize = batchSize;
+            this.handler = handler;
+            this.threadFactory = threadFactory;
+        }
+
+        private Stage create() {
+            return new Stage(name, threads, queueCapacity, batchSize, handler, threadFactory);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.pipeline;
+
+import com.java8.ExampleInterface;
+import com.java8.Item;
+import com.java8.Order;
+import com.java8.OrderRepository;
+import com.metrics.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+// order events through validation -> enrichment -> aggregation, then a throughput and latency
+// benchmark with 1 to 4 stages
+public class PipelineDemo {
+    private static final int EVENTS = 5_000_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        OrderRepository orderRepository = new OrderRepository();
+        ExampleInterface printer = System.out::println;
+
+        LongAdder revenue = new LongAdder();
+        Pipeline<Order> pipeline = Pipeline.<Order>builder()
+                .filter("validation", 1, order -> order.getItems() != null && !order.getItems().isEmpty())
+                .map("enrichment", 1, order -> new PricedOrder(order, System.nanoTime()))
+                .peek("aggregation", 1, priced -> revenue.add(priced.total))
+                .sink("logging", 1, priced -> priced.order.getCustomerName() + " spent " + priced.total, printer);
+        pipeline.submitAll(orderRepository.findAll());
+        pipeline.close();
+        System.out.println("Total revenue: " + revenue.sum());
+        System.out.println(pipeline.stats());
+
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            orders.add(orderRepository.findAll().get(i % orderRepository.findAll().size()));
+        }
+        for (int stageCount = 1; stageCount <= 4; stageCount++) {
+            benchmark(stageCount, orders, 1);
+            benchmark(stageCount, orders, 256);
+        }
+    }
+
+    private static void benchmark(int stageCount, List<Order> orders, int batchSize) throws InterruptedException {
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder revenue = new LongAdder();
+        Pipeline.Builder<PricedOrder, PricedOrder> builder = Pipeline.<PricedOrder>builder()
+                .batchSize(batchSize)
+                .queueCapacity(batchSize == 1 ? 65_536 : 256);
+        for (int i = 1; i < stageCount; i++) {
+            builder = builder.map("stage" + i, 1, PricedOrder::price);
+        }
+        Pipeline<PricedOrder> pipeline = builder.sink("aggregation", 1, priced -> {
+            revenue.add(priced.total);
+            latency.record(System.nanoTime() - priced.submittedNanos);
+        });
+
+        long start = System.nanoTime();
+        List<PricedOrder> chunk = new ArrayList<>(orders.size());
+        for (int submitted = 0; submitted < EVENTS; submitted += orders.size()) {
+            chunk.clear();
+            long now = System.nanoTime();
+            for (Order order : orders) {
+                chunk.add(new PricedOrder(order, now));
+            }
+            pipeline.submitAll(chunk);
+        }
+        pipeline.close();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d stage(s), batch %3d: %,.0f msgs/s, latency p50 %,d ns p99 %,d ns%n",
+                stageCount, batchSize, latency.getCount() / seconds,
+                latency.getValueAtPercentile(50), latency.getValueAtPercentile(99));
+    }
+
+    private static final class PricedOrder {
+        private final Order order;
+        private final long submittedNanos;
+        private long total;
+
+        private PricedOrder(Order order, long submittedNanos) {
+            this.order = order;
+            this.submittedNanos = submittedNanos;
+            price();
+        }
+
+        private PricedOrder price() {
+            long sum = 0;
+            for (Item item : order.getItems() == null ? Collections.<Item>emptyList() : order.getItems()) {
+                sum += item.getPrice();
+            }
+            total = sum;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.pipeline;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// one step of a Pipeline: a bounded queue of batches in front of a pool of worker threads.
+// a worker runs the handler over a whole batch and collects the results into an outgoing batch,
+// which is handed on when it reaches batchSize or when this stage's queue has run dry.
+// when the next queue is full that put blocks, which stalls this stage, which fills this queue,
+// and so on back to Pipeline.submit: that is the backpressure
+class Stage {
+    static final Object[] POISON = new Object[0];
+
+    private final String name;
+    private final int threads;
+    private final int batchSize;
+    private final Handler handler;
+    private final ThreadFactory threadFactory;
+    private final BlockingQueue<Object[]> queue;
+    private final AtomicInteger running;
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private Stage next;
+
+    Stage(String name, int threads, int queueCapacity, int batchSize, Handler handler, ThreadFactory threadFactory) {
+        this.name = name;
+        this.threads = threads;
+        this.batchSize = batchSize;
+        this.handler = handler;
+        this.threadFactory = threadFactory;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.running = new AtomicInteger(threads);
+    }
+
+    void setNext(Stage next) {
+        this.next = next;
+    }
+
+    void start() {
+        for (int i = 0; i < threads; i++) {
+            Thread thread = threadFactory.newThread(this::work);
+            thread.setName("pipeline-" + name + "-" + i);
+            thread.start();
+        }
+    }
+
+    void put(Object[] batch) throws InterruptedException {
+        queue.put(batch);
+    }
+
+    // one pill per worker. an interrupt does not stop it half way, a worker left without its pill
+    // would never finish and neither would the stages after it
+    void stop() {
+        boolean interrupted = false;
+        for (int i = 0; i < threads; ) {
+            try {
+                queue.put(POISON);
+                i++;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    long getProcessed() {
+        return processed.sum();
+    }
+
+    long getFailed() {
+        return failed.sum();
+    }
+
+    int getQueued() {
+        return queue.size();
+    }
+
+    private void work() {
+        Object[] pending = new Object[batchSize];
+        int pendingCount = 0;
+        try {
+            while (true) {
+                Object[] batch = queue.take();
+                if (batch == POISON) {
+                    break;
+                }
+                for (Object message : batch) {
+                    Object result;
+                    try {
+                        result = handler.handle(message);
+                    } catch (RuntimeException e) {
+                        failed.increment();
+                        continue;
+                    }
+                    if (result != null && next != null) {
+                        pending[pendingCount++] = result;
+                        if (pendingCount == batchSize) {
+                            next.put(pending);
+                            pending = new Object[batchSize];
+                            pendingCount = 0;
+                        }
+                    }
+                }
+                processed.add(batch.length);
+                // keep batching while more work is waiting, flush as soon as we would go idle
+                if (pendingCount > 0 && queue.isEmpty()) {
+                    next.put(Arrays.copyOf(pending, pendingCount));
+                    pendingCount = 0;
+                }
+            }
+            if (pendingCount > 0) {
+                next.put(Arrays.copyOf(pending, pendingCount));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (running.decrementAndGet() == 0) {
+                try {
+                    if (next != null) {
+                        next.stop();
+                    }
+                } finally {
+                    terminated.countDown();
+                }
+            }
+        }
+    }
+
+    // returns the message to pass on, or null to drop it
+    @FunctionalInterface
+    interface Handler {
+        Object handle(Object message);
+    }
+}
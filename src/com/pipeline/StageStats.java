@@ -0,0 +1,41 @@
+package com.pipeline;
+
+public class StageStats {
+    private final String name;
+    private final long processed;
+    private final long failed;
+    private final int queuedBatches;
+
+    public StageStats(String name, long processed, long failed, int queuedBatches) {
+        this.name = name;
+        this.processed = processed;
+        this.failed = failed;
+        this.queuedBatches = queuedBatches;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public int getQueuedBatches() {
+        return queuedBatches;
+    }
+
+    @Override
+    public String toString() {
+        return "StageStats{" +
+                "name='" + name + '\'' +
+                ", processed=" + processed +
+                ", failed=" + failed +
+                ", queuedBatches=" + queuedBatches +
+                '}';
+    }
+}
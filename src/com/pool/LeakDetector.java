@@ -0,0 +1,55 @@
+package com.pool;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// debug aid: remembers where every pooled object was acquired. an object that is garbage collected
+// before it was released never made it back to the pool, that is a leak and gets reported with the
+// stack trace of its acquisition. costs a stack trace per acquire, keep it out of production
+class LeakDetector {
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+    private final Set<Tracker> live = ConcurrentHashMap.newKeySet();
+    private final LongAdder leaks = new LongAdder();
+
+    Tracker track(Object object) {
+        reportLeaks();
+        Tracker tracker = new Tracker(object, collected, new Throwable("acquired here"));
+        live.add(tracker);
+        return tracker;
+    }
+
+    void untrack(Tracker tracker) {
+        live.remove(tracker);
+        tracker.clear();
+    }
+
+    long getLeaks() {
+        reportLeaks();
+        return leaks.sum();
+    }
+
+    private void reportLeaks() {
+        for (Object reference = collected.poll(); reference != null; reference = collected.poll()) {
+            Tracker tracker = (Tracker) reference;
+            if (live.remove(tracker)) {
+                leaks.increment();
+                System.err.println("LEAK: " + tracker.type + " was never released to its OrderPool");
+                tracker.acquiredAt.printStackTrace();
+            }
+        }
+    }
+
+    static final class Tracker extends WeakReference<Object> {
+        private final String type;
+        private final Throwable acquiredAt;
+
+        private Tracker(Object referent, ReferenceQueue<Object> queue, Throwable acquiredAt) {
+            super(referent, queue);
+            this.type = referent.getClass().getSimpleName();
+            this.acquiredAt = acquiredAt;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.pool;
+
+import com.java8.Item;
+import com.java8.Order;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayDeque;
+import java.util.List;
+
+// optional recycling of Order and Item objects for allocation heavy ingest paths.
+// every thread has its own free lists, so acquire and release never contend:
+//
+//     PooledOrder order = pool.acquireOrder(id, customerName);
+//     order.getItems().add(pool.acquireItem(1, "Item1", 100));
+//     ... use the order ...
+//     pool.release(order);   // also releases its items
+//
+// any thread may release an object, it goes to the releasing thread's pool. releasing is claimed
+// with a compare-and-set, so of two threads releasing the same object one fails instead of both
+// pooling it. a released order must not be touched again, releasing it twice fails fast and
+// leaves the order and its items as they were. in debug mode (new OrderPool(true) or
+// -Dorderpool.debug=true) orders dropped without release are reported too
+public class OrderPool {
+    private static final int DEFAULT_MAX_PER_THREAD = 4096;
+    private static final VarHandle ORDER_IN_POOL;
+    private static final VarHandle ITEM_IN_POOL;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            ORDER_IN_POOL = lookup.findVarHandle(PooledOrder.class, "inPool", boolean.class);
+            ITEM_IN_POOL = lookup.findVarHandle(PooledItem.class, "inPool", boolean.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final int maxPerThread;
+    private final LeakDetector leakDetector;
+    private final ThreadLocal<ArrayDeque<PooledOrder>> freeOrders = ThreadLocal.withInitial(ArrayDeque::new);
+    private final ThreadLocal<ArrayDeque<PooledItem>> freeItems = ThreadLocal.withInitial(ArrayDeque::new);
+
+    public OrderPool() {
+        this(Boolean.getBoolean("orderpool.debug"));
+    }
+
+    public OrderPool(boolean debug) {
+        this(DEFAULT_MAX_PER_THREAD, debug);
+    }
+
+    public OrderPool(int maxPerThread, boolean debug) {
+        if (maxPerThread < 0) {
+            throw new IllegalArgumentException("pool size must not be negative: " + maxPerThread);
+        }
+        this.maxPerThread = maxPerThread;
+        this.leakDetector = debug ? new LeakDetector() : null;
+    }
+
+    public PooledOrder acquireOrder(int id, String customerName) {
+        PooledOrder order = freeOrders.get().pollFirst();
+        if (order == null) {
+            order = new PooledOrder(this);
+        }
+        order.inPool = false;
+        order.setId(id);
+        order.setCustomerName(customerName);
+        if (leakDetector != null) {
+            order.tracker = leakDetector.track(order);
+        }
+        return order;
+    }
+
+    public PooledItem acquireItem(int id, String name, int price) {
+        PooledItem item = freeItems.get().pollFirst();
+        if (item == null) {
+            item = new PooledItem();
+        }
+        item.inPool = false;
+        item.setId(id);
+        item.setName(name);
+        item.setPrice(price);
+        if (leakDetector != null) {
+            item.tracker = leakDetector.track(item);
+        }
+        return item;
+    }
+
+    // returns the order and every pooled item on it to this thread's pool. an item that is on the
+    // order more than once is released once. all of them are claimed before anything changes, so a
+    // failed release leaves the order and its items as they were
+    public void release(Order order) {
+        if (!(order instanceof PooledOrder)) {
+            throw new IllegalArgumentException("order was not acquired from an OrderPool: " + order);
+        }
+        PooledOrder pooled = (PooledOrder) order;
+        claim(ORDER_IN_POOL, pooled);
+        List<Item> items = pooled.itemList;
+        boolean duplicates = false;
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            if (!(item instanceof PooledItem) || ITEM_IN_POOL.compareAndSet(item, false, true)) {
+                continue;
+            }
+            if (indexOfSame(items, item) < i) {
+                // claimed a moment ago as an earlier entry of this list
+                duplicates = true;
+                continue;
+            }
+            for (int j = 0; j < i; j++) {
+                if (items.get(j) instanceof PooledItem) {
+                    ITEM_IN_POOL.setVolatile(items.get(j), false);
+                }
+            }
+            ORDER_IN_POOL.setVolatile(pooled, false);
+            throw new IllegalStateException("released twice: " + item + " on " + pooled);
+        }
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            if (item instanceof PooledItem && (!duplicates || indexOfSame(items, item) == i)) {
+                recycle((PooledItem) item);
+            }
+        }
+        pooled.itemList.clear();
+        pooled.setId(null);
+        pooled.setCustomerName(null);
+        if (pooled.tracker != null) {
+            leakDetector.untrack(pooled.tracker);
+            pooled.tracker = null;
+        }
+        ArrayDeque<PooledOrder> free = freeOrders.get();
+        if (free.size() < maxPerThread) {
+            free.addFirst(pooled);
+        }
+    }
+
+    public void release(PooledItem item) {
+        claim(ITEM_IN_POOL, item);
+        recycle(item);
+    }
+
+    // number of leaked objects seen so far, always 0 outside debug mode
+    public long getLeaks() {
+        return leakDetector == null ? 0 : leakDetector.getLeaks();
+    }
+
+    // always checked: a second release would put one object on the free list twice and hand it
+    // out to two owners
+    private static void claim(VarHandle inPool, Object object) {
+        if (!inPool.compareAndSet(object, false, true)) {
+            throw new IllegalStateException("released twice: " + object);
+        }
+    }
+
+    // the item is claimed already
+    private void recycle(PooledItem item) {
+        item.setName(null);
+        if (item.tracker != null) {
+            leakDetector.untrack(item.tracker);
+            item.tracker = null;
+        }
+        ArrayDeque<PooledItem> free = freeItems.get();
+        if (free.size() < maxPerThread * 4) {
+            free.addFirst(item);
+        }
+    }
+
+    // identity, not equals: two equal items are still two objects to pool
+    static int indexOfSame(List<Item> items, Item item) {
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i) == item) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
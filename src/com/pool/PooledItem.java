@@ -0,0 +1,12 @@
+package com.pool;
+
+import com.java8.Item;
+
+// an Item that belongs to an OrderPool, only the pool creates them
+public class PooledItem extends Item {
+    boolean inPool;
+    LeakDetector.Tracker tracker;
+
+    PooledItem() {
+    }
+}
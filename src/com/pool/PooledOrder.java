@@ -0,0 +1,44 @@
+package com.pool;
+
+import com.java8.Item;
+import com.java8.Order;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// an Order that belongs to an OrderPool. it owns one item list for its whole life,
+// the list is cleared on release but keeps its capacity for the next use.
+// the order also owns the pooled items on it: they go back to the pool with the order
+public class PooledOrder extends Order {
+    final ArrayList<Item> itemList = new ArrayList<>();
+    final OrderPool pool;
+    boolean inPool;
+    LeakDetector.Tracker tracker;
+
+    PooledOrder(OrderPool pool) {
+        this.pool = pool;
+        super.setItems(itemList);
+    }
+
+    // items are copied into the pooled list instead of replacing it. pooled items that are
+    // not in the new list are released, the order was their only owner
+    @Override
+    public void setItems(List<Item> items) {
+        if (items == itemList) {
+            return;
+        }
+        List<Item> replaced = new ArrayList<>(itemList);
+        itemList.clear();
+        if (items != null) {
+            itemList.addAll(items);
+        }
+        for (int i = 0; i < replaced.size(); i++) {
+            Item item = replaced.get(i);
+            // once per item, however often it was on the list
+            if (item instanceof PooledItem && OrderPool.indexOfSame(itemList, item) < 0
+                    && OrderPool.indexOfSame(replaced, item) == i) {
+                pool.release((PooledItem) item);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.pool;
+
+import com.nio.OrderCodec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// decodes OrderCodec records into pooled orders. customer and item names repeat a lot in an
+// ingest stream, so they are looked up in a small cache by their raw bytes instead of
+// allocating a new String per field. the caller releases every decoded order to the pool
+public class PooledOrderDecoder {
+    private static final int CACHE_SIZE = 4096;
+
+    private final OrderPool pool;
+    private final byte[][] cachedBytes = new byte[CACHE_SIZE][];
+    private final String[] cachedStrings = new String[CACHE_SIZE];
+
+    public PooledOrderDecoder(OrderPool pool) {
+        this.pool = pool;
+    }
+
+    // same contract as OrderCodec.decode: the length prefix is already consumed
+    public PooledOrder decode(ByteBuffer buffer) {
+        boolean idPresent = buffer.get() != 0;
+        int id = buffer.getInt();
+        String customerName = getString(buffer);
+        int itemCount = buffer.getInt();
+        PooledOrder order = pool.acquireOrder(id, customerName);
+        if (!idPresent) {
+            order.setId(null);
+        }
+        order.itemList.ensureCapacity(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            int itemId = buffer.getInt();
+            String name = getString(buffer);
+            order.itemList.add(pool.acquireItem(itemId, name, buffer.getInt()));
+        }
+        return order;
+    }
+
+    // decodes a record including its length prefix
+    public PooledOrder decodeRecord(ByteBuffer buffer) {
+        buffer.position(buffer.position() + OrderCodec.LENGTH_PREFIX);
+        return decode(buffer);
+    }
+
+    private String getString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        int start = buffer.position();
+        int hash = 1;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + buffer.get(start + i);
+        }
+        int slot = (hash ^ (hash >>> 16)) & (CACHE_SIZE - 1);
+        byte[] cached = cachedBytes[slot];
+        if (cached != null && matches(cached, buffer, start)) {
+            buffer.position(start + length);
+            return cachedStrings[slot];
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        // one slot per hash, a collision simply replaces the older entry
+        cachedBytes[slot] = bytes;
+        cachedStrings[slot] = value;
+        return value;
+    }
+
+    private static boolean matches(byte[] cached, ByteBuffer buffer, int start) {
+        if (buffer.getShort(start - Short.BYTES) != cached.length) {
+            return false;
+        }
+        for (int i = 0; i < cached.length; i++) {
+            if (cached[i] != buffer.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,168 @@
+package com.pool;
+
+import com.java8.Item;
+import com.java8.Order;
+import com.nio.OrderCodec;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.ThreadMXBean;
+
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// replays an encoded order stream at a fixed rate and compares the plain ingest path
+// (OrderCodec.decode, a fresh Order, item list and Items per record) with the pooled one.
+// every ingested order stays in flight for WINDOW records before it is dropped or released,
+// like a downstream buffer would keep it
+// usage: java com.pool.PoolingBenchmark [seconds per run, default 10] [records per second, default 1_000_000]
+public class PoolingBenchmark {
+    private static final int DISTINCT_RECORDS = 10_000;
+    private static final int WINDOW = 16_384;
+
+    private static final AtomicLong gcCount = new AtomicLong();
+    private static final AtomicLong gcMillis = new AtomicLong();
+    private static final AtomicLong gcMaxMillis = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int rate = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        ByteBuffer stream = encode(DISTINCT_RECORDS);
+        listenToGc();
+
+        // short warm-up so both paths are compiled before they are measured
+        run("plain", stream, rate, 2, false);
+        run("pooled", stream, rate, 2, true);
+        System.out.printf("%d records/s for %d s, %d orders in flight%n", rate, seconds, WINDOW);
+        for (int round = 0; round < 2; round++) {
+            report(run("plain", stream, rate, seconds, false));
+            report(run("pooled", stream, rate, seconds, true));
+        }
+        leakCheck(stream);
+    }
+
+    private static long[] run(String label, ByteBuffer stream, int rate, int seconds, boolean pooled) {
+        System.gc();
+        OrderPool pool = new OrderPool(false);
+        PooledOrderDecoder decoder = new PooledOrderDecoder(pool);
+        Order[] window = new Order[WINDOW];
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long records = (long) rate * seconds;
+        long checksum = 0;
+        long gcCountBefore = gcCount.get();
+        long gcMillisBefore = gcMillis.get();
+        gcMaxMillis.set(0);
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        ByteBuffer input = stream.duplicate();
+        for (long n = 0; n < records; n++) {
+            if ((n & 1023) == 0) {
+                pace(start, n, rate);
+            }
+            if (!input.hasRemaining()) {
+                input.rewind();
+            }
+            Order order;
+            if (pooled) {
+                order = decoder.decodeRecord(input);
+            } else {
+                input.position(input.position() + OrderCodec.LENGTH_PREFIX);
+                order = OrderCodec.decode(input);
+            }
+            checksum += process(order);
+
+            int slot = (int) (n & (WINDOW - 1));
+            if (pooled && window[slot] != null) {
+                pool.release(window[slot]);
+            }
+            window[slot] = order;
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        if (checksum == 42) {
+            System.out.println();
+        }
+        return new long[]{pooled ? 1 : 0, records, elapsed, allocated,
+                gcCount.get() - gcCountBefore, gcMillis.get() - gcMillisBefore, gcMaxMillis.get()};
+    }
+
+    private static long process(Order order) {
+        long total = order.getId();
+        for (Item item : order.getItems()) {
+            total += item.getPrice();
+        }
+        return total + order.getCustomerName().length();
+    }
+
+    // keeps the loop at the target rate, a run that falls behind just goes as fast as it can
+    private static void pace(long start, long records, int rate) {
+        long due = start + records * 1_000_000_000L / rate;
+        while (System.nanoTime() < due) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void report(long[] result) {
+        double seconds = result[2] / 1e9;
+        System.out.printf("%-7s %,.0f records/s, %6.1f bytes/op, %,d MB/s allocated, %3d GCs, %4d ms in GC, longest pause %3d ms%n",
+                result[0] == 1 ? "pooled" : "plain", result[1] / seconds, (double) result[3] / result[1],
+                (long) (result[3] / seconds / (1024 * 1024)), result[4], result[5], result[6]);
+    }
+
+    // forgets one order on purpose, the debug pool must report it once it is collected
+    private static void leakCheck(ByteBuffer stream) throws InterruptedException {
+        OrderPool pool = new OrderPool(true);
+        PooledOrderDecoder decoder = new PooledOrderDecoder(pool);
+        ByteBuffer input = stream.duplicate();
+        pool.release(decoder.decodeRecord(input));
+        decoder.decodeRecord(input);
+        for (int i = 0; i < 10 && pool.getLeaks() == 0; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        System.out.println("debug pool, leaked objects reported: " + pool.getLeaks());
+    }
+
+    private static void listenToGc() {
+        NotificationListener listener = (notification, handback) -> {
+            if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                return;
+            }
+            GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            long duration = info.getGcInfo().getDuration();
+            gcCount.incrementAndGet();
+            gcMillis.addAndGet(duration);
+            gcMaxMillis.accumulateAndGet(duration, Math::max);
+        };
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) collector).addNotificationListener(listener, null, null);
+        }
+    }
+
+    private static ByteBuffer encode(int count) {
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<Item> items = new ArrayList<>();
+            for (int j = 0; j < 1 + i % 5; j++) {
+                items.add(new Item(j, "Item" + j, 100 + j * 50));
+            }
+            orders.add(new Order(i, items, "Customer" + i % 1000));
+        }
+        int size = 0;
+        for (Order order : orders) {
+            size += OrderCodec.encodedSize(order);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (Order order : orders) {
+            OrderCodec.encode(order, buffer);
+        }
+        return buffer.flip();
+    }
+}
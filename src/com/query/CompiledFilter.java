@@ -0,0 +1,12 @@
+package com.query;
+
+import com.java8.Order;
+
+// the fused filter loop of one plan, see FilterCompiler
+interface CompiledFilter {
+    // rows of every order that passes, in row order, stops after limit matches
+    int[] scan(Order[] orders, int[] totals, int limit);
+
+    // same over the candidate rows handed in by an index probe
+    int[] probe(Order[] orders, int[] totals, int[] rows, int limit);
+}
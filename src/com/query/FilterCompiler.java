@@ -0,0 +1,172 @@
+package com.query;
+
+import com.java8.Item;
+import com.java8.Order;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// turns a list of conditions into one (Object[] constants, Order, int total) -> boolean method
+// handle, each condition a static method reading its constants from the array, chained with
+// guardWithTest so they short-circuit in the given order. the handle becomes the class data of a
+// hidden copy of FusedFilter. that class only depends on the shape of the list (which tests, in
+// which order), so it is defined once per shape and every plan of that shape gets an instance
+// holding its own constants: a new customer name or item id does not define a new class
+final class FilterCompiler {
+    // a few shapes per kind of query, more than this means something generates odd lists. those are
+    // compiled but not kept, so the shapes already cached stay
+    private static final int MAX_CACHED_SHAPES = 256;
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType TEST = MethodType.methodType(boolean.class, Order.class, int.class);
+    private static final MethodType PREDICATE = TEST.insertParameterTypes(0, Object[].class);
+    private static final MethodHandle ALWAYS = MethodHandles.dropArguments(MethodHandles.constant(boolean.class, true), 0, PREDICATE.parameterList());
+    private static final MethodHandle NEVER = MethodHandles.dropArguments(MethodHandles.constant(boolean.class, false), 0, PREDICATE.parameterList());
+    private static final MethodHandle CONSTANT = MethodHandles.arrayElementGetter(Object[].class);
+    private static final MethodHandle CUSTOMER_EQUALS;
+    private static final MethodHandle TOTAL_BETWEEN;
+    private static final MethodHandle CONTAINS_ITEM;
+    private static final byte[] TEMPLATE;
+    // shape (the kinds of the conditions, in order) -> constructor of its hidden class
+    private static final Map<List<MethodHandle>, MethodHandle> FILTERS = new ConcurrentHashMap<>();
+
+    static {
+        try {
+            CUSTOMER_EQUALS = LOOKUP.findStatic(FilterCompiler.class, "customerEquals", TEST.insertParameterTypes(0, String.class));
+            TOTAL_BETWEEN = LOOKUP.findStatic(FilterCompiler.class, "totalBetween", TEST.insertParameterTypes(0, int.class, int.class));
+            CONTAINS_ITEM = LOOKUP.findStatic(FilterCompiler.class, "containsItem", TEST.insertParameterTypes(0, int.class));
+            try (InputStream in = FilterCompiler.class.getResourceAsStream("FusedFilter.class")) {
+                if (in == null) {
+                    throw new IllegalStateException("FusedFilter.class not found next to FilterCompiler");
+                }
+                TEMPLATE = in.readAllBytes();
+            }
+        } catch (ReflectiveOperationException | IOException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private FilterCompiler() {
+    }
+
+    // one condition of a plan: its test (kind) and the constants it is run with. the description
+    // is only for explain()
+    static final class Condition {
+        private final MethodHandle kind;
+        private final List<Object> constants;
+        private final String description;
+
+        private Condition(MethodHandle kind, List<Object> constants, String description) {
+            this.kind = kind;
+            this.constants = constants;
+            this.description = description;
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+
+    static Condition customer(String name) {
+        return new Condition(CUSTOMER_EQUALS, List.of(name), "customer = " + name);
+    }
+
+    static Condition total(int min, int max) {
+        return new Condition(TOTAL_BETWEEN, List.of(min, max), "total between " + min + " and " + max);
+    }
+
+    static Condition item(int itemId) {
+        return new Condition(CONTAINS_ITEM, List.of(itemId), "contains item " + itemId);
+    }
+
+    static CompiledFilter compile(List<Condition> conditions) {
+        List<MethodHandle> shape = new ArrayList<>(conditions.size());
+        List<Object> constants = new ArrayList<>();
+        for (Condition condition : conditions) {
+            shape.add(condition.kind);
+            constants.addAll(condition.constants);
+        }
+        MethodHandle factory = FILTERS.get(shape);
+        if (factory == null) {
+            factory = define(shape);
+            if (FILTERS.size() < MAX_CACHED_SHAPES) {
+                MethodHandle raced = FILTERS.putIfAbsent(shape, factory);
+                factory = raced == null ? factory : raced;
+            }
+        }
+        try {
+            return (CompiledFilter) factory.invokeExact(constants.toArray());
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("could not compile filter " + conditions, e);
+        }
+    }
+
+    // the hidden class of one shape, as a (Object[] constants) -> CompiledFilter constructor
+    private static MethodHandle define(List<MethodHandle> shape) {
+        int slot = 0;
+        for (MethodHandle kind : shape) {
+            slot += kind.type().parameterCount() - TEST.parameterCount();
+        }
+        MethodHandle predicate = ALWAYS;
+        for (int i = shape.size() - 1; i >= 0; i--) {
+            MethodHandle kind = shape.get(i);
+            slot -= kind.type().parameterCount() - TEST.parameterCount();
+            MethodHandle test = readConstants(kind, slot);
+            predicate = predicate == ALWAYS ? test : MethodHandles.guardWithTest(test, predicate, NEVER);
+        }
+        try {
+            MethodHandles.Lookup hidden = LOOKUP.defineHiddenClassWithClassData(TEMPLATE, predicate, true);
+            return hidden.findConstructor(hidden.lookupClass(), MethodType.methodType(void.class, Object[].class))
+                    .asType(MethodType.methodType(CompiledFilter.class, Object[].class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("could not compile filter " + shape, e);
+        }
+    }
+
+    // kind takes its constants first, feed them from constants[slot], constants[slot + 1], ...
+    private static MethodHandle readConstants(MethodHandle kind, int slot) {
+        int count = kind.type().parameterCount() - TEST.parameterCount();
+        MethodHandle test = kind;
+        for (int i = 0; i < count; i++) {
+            MethodHandle constant = MethodHandles.insertArguments(CONSTANT, 1, slot + i)
+                    .asType(MethodType.methodType(kind.type().parameterType(i), Object[].class));
+            test = MethodHandles.filterArguments(test, i, constant);
+        }
+        // every constant reads the same array, then order and total
+        int[] reorder = new int[count + TEST.parameterCount()];
+        for (int i = 0; i < TEST.parameterCount(); i++) {
+            reorder[count + i] = i + 1;
+        }
+        return MethodHandles.permuteArguments(test, PREDICATE, reorder);
+    }
+
+    private static boolean customerEquals(String name, Order order, int total) {
+        return name.equals(order.getCustomerName());
+    }
+
+    private static boolean totalBetween(int min, int max, Order order, int total) {
+        return total >= min && total <= max;
+    }
+
+    private static boolean containsItem(int itemId, Order order, int total) {
+        List<Item> items = order.getItems();
+        if (items == null) {
+            return false;
+        }
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).getId() == itemId) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,68 @@
+package com.query;
+
+import com.java8.Order;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
+
+// template for the generated filter classes, never used directly. FilterCompiler defines a hidden
+// copy of this class per condition shape with the shape's predicate as class data, PREDICATE then is
+// a real constant and the JIT inlines the whole predicate tree into the loops below. the plan's own
+// constants are an argument of the predicate, read from this instance
+final class FusedFilter implements CompiledFilter {
+    private static final MethodHandle PREDICATE = predicate();
+
+    private final Object[] constants;
+
+    FusedFilter(Object[] constants) {
+        this.constants = constants;
+    }
+
+    private static MethodHandle predicate() {
+        try {
+            return MethodHandles.classData(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, MethodHandle.class);
+        } catch (IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Override
+    public int[] scan(Order[] orders, int[] totals, int limit) {
+        int[] matches = new int[16];
+        int count = 0;
+        for (int row = 0; row < orders.length && count < limit; row++) {
+            if (test(orders[row], totals[row])) {
+                if (count == matches.length) {
+                    matches = Arrays.copyOf(matches, count * 2);
+                }
+                matches[count++] = row;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    @Override
+    public int[] probe(Order[] orders, int[] totals, int[] rows, int limit) {
+        int[] matches = new int[Math.min(rows.length, limit)];
+        int count = 0;
+        for (int i = 0; i < rows.length && count < limit; i++) {
+            int row = rows[i];
+            if (test(orders[row], totals[row])) {
+                matches[count++] = row;
+            }
+        }
+        return count == matches.length ? matches : Arrays.copyOf(matches, count);
+    }
+
+    private boolean test(Order order, int total) {
+        try {
+            return (boolean) PREDICATE.invokeExact(constants, order, total);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
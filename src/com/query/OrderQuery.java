@@ -0,0 +1,117 @@
+package com.query;
+
+import java.util.Arrays;
+
+// a declarative query over the orders of a repository. immutable, every method returns a new query:
+//
+//     OrderQuery.orders().customerEquals("Ahmed").containsItem(5).orderBy(OrderQuery.Key.TOTAL, true).limit(10)
+//
+// all conditions must hold. total is the sum of the order's item prices.
+// how the query runs is up to QueryEngine
+public final class OrderQuery {
+    public enum Key {ID, TOTAL, CUSTOMER}
+
+    private static final OrderQuery ALL = new OrderQuery(null, Integer.MIN_VALUE, Integer.MAX_VALUE, new int[0], null, false, -1);
+
+    private final String customer;
+    private final int minTotal;
+    private final int maxTotal;
+    private final int[] itemIds;
+    private final Key orderBy;
+    private final boolean descending;
+    private final int limit;
+
+    private OrderQuery(String customer, int minTotal, int maxTotal, int[] itemIds, Key orderBy, boolean descending, int limit) {
+        this.customer = customer;
+        this.minTotal = minTotal;
+        this.maxTotal = maxTotal;
+        this.itemIds = itemIds;
+        this.orderBy = orderBy;
+        this.descending = descending;
+        this.limit = limit;
+    }
+
+    public static OrderQuery orders() {
+        return ALL;
+    }
+
+    public OrderQuery customerEquals(String customerName) {
+        if (customerName == null) {
+            throw new IllegalArgumentException("customer name must not be null");
+        }
+        return new OrderQuery(customerName, minTotal, maxTotal, itemIds, orderBy, descending, limit);
+    }
+
+    // inclusive on both ends
+    public OrderQuery totalBetween(int min, int max) {
+        if (min > max) {
+            throw new IllegalArgumentException("empty total range: " + min + " > " + max);
+        }
+        return new OrderQuery(customer, min, max, itemIds, orderBy, descending, limit);
+    }
+
+    // can be repeated, the order must contain every item asked for
+    public OrderQuery containsItem(int itemId) {
+        int[] ids = Arrays.copyOf(itemIds, itemIds.length + 1);
+        ids[itemIds.length] = itemId;
+        return new OrderQuery(customer, minTotal, maxTotal, ids, orderBy, descending, limit);
+    }
+
+    public OrderQuery orderBy(Key key, boolean descending) {
+        if (key == null) {
+            throw new IllegalArgumentException("sort key must not be null");
+        }
+        return new OrderQuery(customer, minTotal, maxTotal, itemIds, key, descending, limit);
+    }
+
+    public OrderQuery limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative: " + limit);
+        }
+        return new OrderQuery(customer, minTotal, maxTotal, itemIds, orderBy, descending, limit);
+    }
+
+    public String getCustomer() {
+        return customer;
+    }
+
+    public boolean hasTotalRange() {
+        return minTotal != Integer.MIN_VALUE || maxTotal != Integer.MAX_VALUE;
+    }
+
+    public int getMinTotal() {
+        return minTotal;
+    }
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    public int[] getItemIds() {
+        return itemIds.clone();
+    }
+
+    public Key getOrderBy() {
+        return orderBy;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    // -1 when there is no limit
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderQuery{" +
+                "customer=" + customer +
+                ", total=[" + minTotal + ", " + maxTotal + "]" +
+                ", items=" + Arrays.toString(itemIds) +
+                ", orderBy=" + orderBy + (descending ? " desc" : "") +
+                ", limit=" + limit +
+                '}';
+    }
+}
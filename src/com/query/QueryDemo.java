@@ -0,0 +1,133 @@
+package com.query;
+
+import com.java8.Item;
+import com.java8.Order;
+import com.java8.OrderRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// plans and runs a few queries over 2_000_000 generated orders and times each one against the
+// stream chain it replaces (filter per condition over findAll(), sorted, limit), best of ten runs after
+// warming up the plan
+// usage: java com.query.QueryDemo [orders, default 2_000_000]
+public class QueryDemo {
+    private static final int WARMUP_RUNS = 100;
+    private static final int RUNS = 10;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        OrderRepository repository = new OrderRepository(generateOrders(count));
+        long start = System.nanoTime();
+        QueryEngine engine = new QueryEngine(repository);
+        System.out.printf("indexed %,d orders in %d ms%n%n", engine.size(), (System.nanoTime() - start) / 1_000_000);
+
+        run("selective: one customer with item 7", engine, repository,
+                OrderQuery.orders().customerEquals("Customer42").containsItem(7));
+        run("selective: narrow total range", engine, repository,
+                OrderQuery.orders().totalBetween(3000, 3002));
+        run("selective: two rare items", engine, repository,
+                OrderQuery.orders().containsItem(500).containsItem(501).orderBy(OrderQuery.Key.ID, false));
+        run("broad: total range, top 100 by total", engine, repository,
+                OrderQuery.orders().totalBetween(0, 2000).orderBy(OrderQuery.Key.TOTAL, true).limit(100));
+        run("broad: common item and wide range", engine, repository,
+                OrderQuery.orders().containsItem(3).totalBetween(500, 5000).orderBy(OrderQuery.Key.CUSTOMER, false));
+    }
+
+    private static void run(String label, QueryEngine engine, OrderRepository repository, OrderQuery query) {
+        QueryPlan plan = engine.plan(query);
+        // a selective plan touches too few rows per run for the JIT to compile its filter loop early
+        for (int run = 0; run < WARMUP_RUNS; run++) {
+            engine.execute(query);
+        }
+        List<Order> planned = null;
+        List<Order> streamed = null;
+        long planNanos = Long.MAX_VALUE;
+        long streamNanos = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            planned = engine.execute(query);
+            planNanos = Math.min(planNanos, System.nanoTime() - start);
+            start = System.nanoTime();
+            streamed = stream(repository.findAll(), query);
+            streamNanos = Math.min(streamNanos, System.nanoTime() - start);
+        }
+        if (!planned.equals(streamed)) {
+            throw new IllegalStateException(label + ": plan returned " + planned.size() + " orders, stream " + streamed.size());
+        }
+        System.out.println(label);
+        System.out.println("  " + plan.explain());
+        System.out.printf("  %,d orders: plan %.2f ms, stream %.2f ms (%.1fx)%n%n", planned.size(),
+                planNanos / 1e6, streamNanos / 1e6, (double) streamNanos / planNanos);
+    }
+
+    // the hand-written equivalent, one lambda per condition
+    private static List<Order> stream(List<Order> orders, OrderQuery query) {
+        Stream<Order> stream = orders.stream();
+        if (query.getCustomer() != null) {
+            stream = stream.filter(order -> query.getCustomer().equals(order.getCustomerName()));
+        }
+        for (int itemId : query.getItemIds()) {
+            stream = stream.filter(order -> order.getItems().stream().anyMatch(item -> item.getId() == itemId));
+        }
+        if (query.hasTotalRange()) {
+            stream = stream.filter(order -> {
+                int total = total(order);
+                return total >= query.getMinTotal() && total <= query.getMaxTotal();
+            });
+        }
+        if (query.getOrderBy() != null) {
+            Comparator<Order> comparator;
+            switch (query.getOrderBy()) {
+                case ID:
+                    comparator = Comparator.comparing(Order::getId);
+                    break;
+                case TOTAL:
+                    comparator = Comparator.comparingInt(QueryDemo::total);
+                    break;
+                default:
+                    comparator = Comparator.comparing(Order::getCustomerName);
+            }
+            stream = stream.sorted(query.isDescending() ? comparator.reversed() : comparator);
+        }
+        if (query.getLimit() >= 0) {
+            stream = stream.limit(query.getLimit());
+        }
+        return stream.collect(Collectors.toList());
+    }
+
+    private static int total(Order order) {
+        int total = 0;
+        for (Item item : order.getItems()) {
+            total += item.getPrice();
+        }
+        return total;
+    }
+
+    // 2000 customers, 1..4 items per order, item ids 0..9 are in most orders and the other 990 are rare
+    private static List<Order> generateOrders(int count) {
+        Random random = new Random(42);
+        String[] customers = new String[2000];
+        for (int i = 0; i < customers.length; i++) {
+            customers[i] = "Customer" + i;
+        }
+        Item[] catalog = new Item[1000];
+        for (int id = 0; id < catalog.length; id++) {
+            catalog[id] = new Item(id, "Item" + id, 100 + (id * 37) % 900);
+        }
+        List<Order> orders = new ArrayList<>(count);
+        for (int id = 0; id < count; id++) {
+            List<Item> items = new ArrayList<>();
+            int itemCount = 1 + random.nextInt(4);
+            for (int i = 0; i < itemCount; i++) {
+                items.add(catalog[random.nextInt(3) == 0 ? random.nextInt(10) : random.nextInt(catalog.length)]);
+            }
+            orders.add(new Order(id, items, customers[random.nextInt(customers.length)]));
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,222 @@
+package com.query;
+
+import com.index.OrderMembershipIndex;
+import com.index.RoaringBitmap;
+import com.java8.Item;
+import com.java8.Order;
+import com.java8.OrderRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+// runs OrderQuery against a snapshot of a repository taken at construction.
+// keeps bitmap indexes on customer and item (OrderMembershipIndex) and the rows sorted by order
+// total. their exact cardinalities are the statistics the planner costs plans with: a full scan
+// evaluating every condition on every row, or an index probe on the most selective condition(s)
+// that evaluates the rest only on the candidates. the remaining conditions are compiled into one
+// fused loop (FilterCompiler), compiled once per condition shape and reused whatever the constants
+public class QueryEngine {
+    // rough ns per row
+    private static final double SCAN_ROW = 1;
+    private static final double PROBE_ROW = 4;
+    private static final double BITMAP_ROW = 0.5;
+
+    private final Order[] orders;
+    private final int[] totals;
+    private final int[] ids;
+    private final int[] customerRanks;
+    private final OrderMembershipIndex membership;
+    private final int[] sortedTotals;
+    private final int[] rowsByTotal;
+
+    public QueryEngine(OrderRepository repository) {
+        orders = repository.findAll().toArray(new Order[0]);
+        totals = new int[orders.length];
+        ids = new int[orders.length];
+        customerRanks = new int[orders.length];
+        TreeSet<String> customers = new TreeSet<>();
+        long[] byTotal = new long[orders.length];
+        for (int row = 0; row < orders.length; row++) {
+            Order order = orders[row];
+            int total = 0;
+            if (order.getItems() != null) {
+                for (Item item : order.getItems()) {
+                    total += item.getPrice();
+                }
+            }
+            totals[row] = total;
+            ids[row] = order.getId() == null ? Integer.MIN_VALUE : order.getId();
+            if (order.getCustomerName() != null) {
+                customers.add(order.getCustomerName());
+            }
+            byTotal[row] = (long) total << 32 | row;
+        }
+        List<String> ranked = new ArrayList<>(customers);
+        for (int row = 0; row < orders.length; row++) {
+            String customer = orders[row].getCustomerName();
+            customerRanks[row] = customer == null ? -1 : Collections.binarySearch(ranked, customer);
+        }
+        Arrays.sort(byTotal);
+        sortedTotals = new int[orders.length];
+        rowsByTotal = new int[orders.length];
+        for (int i = 0; i < byTotal.length; i++) {
+            sortedTotals[i] = (int) (byTotal[i] >> 32);
+            rowsByTotal[i] = (int) byTotal[i];
+        }
+        membership = new OrderMembershipIndex(Arrays.asList(orders));
+    }
+
+    public List<Order> execute(OrderQuery query) {
+        return plan(query).execute();
+    }
+
+    public QueryPlan plan(OrderQuery query) {
+        int rows = orders.length;
+        List<Estimate> estimates = new ArrayList<>();
+        if (query.getCustomer() != null) {
+            RoaringBitmap bitmap = membership.ofCustomer(query.getCustomer());
+            estimates.add(new Estimate(FilterCompiler.customer(query.getCustomer()), bitmap.cardinality(), 2, bitmap));
+        }
+        for (int itemId : query.getItemIds()) {
+            RoaringBitmap bitmap = membership.containingItem(itemId);
+            estimates.add(new Estimate(FilterCompiler.item(itemId), bitmap.cardinality(), 3, bitmap));
+        }
+        if (query.hasTotalRange()) {
+            int from = lowerBound(query.getMinTotal());
+            int to = query.getMaxTotal() == Integer.MAX_VALUE ? rows : lowerBound(query.getMaxTotal() + 1);
+            estimates.add(new Estimate(FilterCompiler.total(query.getMinTotal(), query.getMaxTotal()), to - from, 0.5, null));
+        }
+        // most selective first, so the fused loop rejects most rows on its first test
+        estimates.sort(Comparator.comparingInt(estimate -> estimate.rows));
+
+        double selectivity = 1;
+        double evaluation = 0;
+        for (Estimate estimate : estimates) {
+            selectivity *= rows == 0 ? 0 : (double) estimate.rows / rows;
+            evaluation += estimate.cost;
+        }
+        long expectedRows = Math.round(selectivity * rows);
+        double scanCost = rows * (SCAN_ROW + evaluation);
+
+        // candidate probes: the most selective condition alone, and all bitmap conditions ANDed
+        double bestCost = scanCost;
+        List<Estimate> bestProbe = List.of();
+        if (!estimates.isEmpty()) {
+            Estimate first = estimates.get(0);
+            double cost = first.rows * (first.bitmap == null ? Math.log(first.rows + 1) : BITMAP_ROW)
+                    + first.rows * (PROBE_ROW + evaluation - first.cost);
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestProbe = List.of(first);
+            }
+            List<Estimate> bitmaps = new ArrayList<>();
+            double bitmapCost = 0;
+            double candidates = rows;
+            double residual = evaluation;
+            for (Estimate estimate : estimates) {
+                if (estimate.bitmap != null) {
+                    bitmaps.add(estimate);
+                    bitmapCost += estimate.rows * BITMAP_ROW;
+                    candidates *= rows == 0 ? 0 : (double) estimate.rows / rows;
+                    residual -= estimate.cost;
+                }
+            }
+            cost = bitmapCost + candidates * (PROBE_ROW + residual);
+            if (!bitmaps.isEmpty() && cost < bestCost) {
+                bestCost = cost;
+                bestProbe = bitmaps;
+            }
+        }
+
+        List<FilterCompiler.Condition> probe = new ArrayList<>();
+        List<FilterCompiler.Condition> residual = new ArrayList<>();
+        for (Estimate estimate : estimates) {
+            (bestProbe.contains(estimate) ? probe : residual).add(estimate.condition);
+        }
+        CompiledFilter filter = FilterCompiler.compile(residual);
+        Supplier<int[]> candidates = bestProbe.isEmpty() ? null : candidates(query, bestProbe);
+        return new QueryPlan(this, query, probe, residual, filter, candidates, expectedRows, bestCost, scanCost);
+    }
+
+    public int size() {
+        return orders.length;
+    }
+
+    Order[] orders() {
+        return orders;
+    }
+
+    int[] totals() {
+        return totals;
+    }
+
+    // the int the rows are ordered by, flipped for descending so the smallest key always comes first
+    int sortKey(OrderQuery.Key key, boolean descending, int row) {
+        int value;
+        switch (key) {
+            case ID:
+                value = ids[row];
+                break;
+            case TOTAL:
+                value = totals[row];
+                break;
+            default:
+                value = customerRanks[row];
+        }
+        return descending ? ~value : value;
+    }
+
+    private Supplier<int[]> candidates(OrderQuery query, List<Estimate> probe) {
+        if (probe.get(0).bitmap == null) {
+            // total range: that slice of the rows sorted by total, back in row order
+            int from = lowerBound(query.getMinTotal());
+            int to = query.getMaxTotal() == Integer.MAX_VALUE ? orders.length : lowerBound(query.getMaxTotal() + 1);
+            return () -> {
+                int[] rows = Arrays.copyOfRange(rowsByTotal, from, to);
+                Arrays.sort(rows);
+                return rows;
+            };
+        }
+        return () -> {
+            RoaringBitmap rows = probe.get(0).bitmap;
+            for (int i = 1; i < probe.size(); i++) {
+                rows = RoaringBitmap.and(rows, probe.get(i).bitmap);
+            }
+            return rows.toArray();
+        };
+    }
+
+    // first position in sortedTotals holding a total >= value
+    private int lowerBound(int value) {
+        int low = 0;
+        int high = sortedTotals.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedTotals[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static final class Estimate {
+        private final FilterCompiler.Condition condition;
+        private final int rows;
+        private final double cost;
+        private final RoaringBitmap bitmap;
+
+        private Estimate(FilterCompiler.Condition condition, int rows, double cost, RoaringBitmap bitmap) {
+            this.condition = condition;
+            this.rows = rows;
+            this.cost = cost;
+            this.bitmap = bitmap;
+        }
+    }
+}
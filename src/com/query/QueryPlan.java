@@ -0,0 +1,150 @@
+package com.query;
+
+import com.java8.Order;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+// what QueryEngine decided to do for one query. explain() describes it, execute() runs it and can be
+// called again (always against the engine's snapshot)
+public class QueryPlan {
+    private final QueryEngine engine;
+    private final OrderQuery query;
+    private final List<FilterCompiler.Condition> probe;
+    private final List<FilterCompiler.Condition> residual;
+    private final CompiledFilter filter;
+    private final Supplier<int[]> candidates;
+    private final long expectedRows;
+    private final double cost;
+    private final double scanCost;
+
+    QueryPlan(QueryEngine engine, OrderQuery query, List<FilterCompiler.Condition> probe, List<FilterCompiler.Condition> residual,
+              CompiledFilter filter, Supplier<int[]> candidates, long expectedRows, double cost, double scanCost) {
+        this.engine = engine;
+        this.query = query;
+        this.probe = probe;
+        this.residual = residual;
+        this.filter = filter;
+        this.candidates = candidates;
+        this.expectedRows = expectedRows;
+        this.cost = cost;
+        this.scanCost = scanCost;
+    }
+
+    public boolean isIndexProbe() {
+        return candidates != null;
+    }
+
+    public long getExpectedRows() {
+        return expectedRows;
+    }
+
+    public List<Order> execute() {
+        Order[] orders = engine.orders();
+        int limit = query.getLimit() < 0 ? Integer.MAX_VALUE : query.getLimit();
+        // without an order by the filter can stop at the limit, rows come out in repository order
+        int filterLimit = query.getOrderBy() == null ? limit : Integer.MAX_VALUE;
+        int[] rows = candidates == null
+                ? filter.scan(orders, engine.totals(), filterLimit)
+                : filter.probe(orders, engine.totals(), candidates.get(), filterLimit);
+        if (query.getOrderBy() != null) {
+            rows = sort(rows, Math.min(limit, rows.length));
+        }
+        List<Order> result = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            result.add(orders[row]);
+        }
+        return result;
+    }
+
+    public String explain() {
+        StringBuilder plan = new StringBuilder();
+        if (candidates == null) {
+            plan.append("FullScan").append(residual.isEmpty() ? "" : conditions(residual));
+        } else {
+            plan.append("IndexProbe").append(conditions(probe));
+            if (!residual.isEmpty()) {
+                plan.append(" -> Filter").append(conditions(residual));
+            }
+        }
+        if (query.getOrderBy() != null) {
+            plan.append(query.getLimit() < 0 ? " -> Sort[" : " -> TopK[").append(query.getOrderBy())
+                    .append(query.isDescending() ? " desc" : "")
+                    .append(query.getLimit() < 0 ? "" : ", " + query.getLimit()).append(']');
+        } else if (query.getLimit() >= 0) {
+            plan.append(" -> Limit[").append(query.getLimit()).append(']');
+        }
+        return String.format("%s  ~%,d rows, cost %,.0f (full scan %,.0f)", plan, expectedRows, cost, scanCost);
+    }
+
+    @Override
+    public String toString() {
+        return explain();
+    }
+
+    private static String conditions(List<FilterCompiler.Condition> conditions) {
+        StringBuilder text = new StringBuilder("[");
+        for (int i = 0; i < conditions.size(); i++) {
+            text.append(i == 0 ? "" : " AND ").append(conditions.get(i));
+        }
+        return text.append(']').toString();
+    }
+
+    // key and row packed into one long, sorting the longs sorts the rows by key then row
+    private int[] sort(int[] rows, int keep) {
+        long[] keys = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            keys[i] = (long) engine.sortKey(query.getOrderBy(), query.isDescending(), rows[i]) << 32 | rows[i];
+        }
+        if (keep < keys.length / 8) {
+            keys = smallest(keys, keep);
+        } else {
+            Arrays.sort(keys);
+        }
+        int[] sorted = new int[keep];
+        for (int i = 0; i < keep; i++) {
+            sorted[i] = (int) keys[i];
+        }
+        return sorted;
+    }
+
+    // the k smallest keys in ascending order, a max heap of k keeps the best seen so far
+    private static long[] smallest(long[] keys, int k) {
+        if (k == 0) {
+            return new long[0];
+        }
+        long[] heap = Arrays.copyOf(keys, k);
+        for (int i = k / 2 - 1; i >= 0; i--) {
+            siftDown(heap, i, k);
+        }
+        for (int i = k; i < keys.length; i++) {
+            if (keys[i] < heap[0]) {
+                heap[0] = keys[i];
+                siftDown(heap, 0, k);
+            }
+        }
+        Arrays.sort(heap);
+        return heap;
+    }
+
+    private static void siftDown(long[] heap, int index, int size) {
+        long value = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (heap[child] <= value) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+}
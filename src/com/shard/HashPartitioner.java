@@ -0,0 +1,23 @@
+package com.shard;
+
+public class HashPartitioner implements Partitioner {
+    private final int shardCount;
+
+    public HashPartitioner(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shard count must be positive: " + shardCount);
+        }
+        this.shardCount = shardCount;
+    }
+
+    @Override
+    public int shardFor(int orderId) {
+        int hash = orderId * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), shardCount);
+    }
+
+    @Override
+    public int getShardCount() {
+        return shardCount;
+    }
+}
@@ -0,0 +1,19 @@
+package com.shard;
+
+// decides which shard owns an order id
+public interface Partitioner {
+    int shardFor(int orderId);
+
+    int getShardCount();
+
+    static Partitioner of(String scheme, int shardCount, int maxOrderId) {
+        switch (scheme) {
+            case "hash":
+                return new HashPartitioner(shardCount);
+            case "range":
+                return new RangePartitioner(shardCount, maxOrderId);
+            default:
+                throw new IllegalArgumentException("unknown partitioning scheme: " + scheme);
+        }
+    }
+}
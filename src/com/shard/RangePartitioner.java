@@ -0,0 +1,26 @@
+package com.shard;
+
+// ids [0, maxOrderId) are cut into shardCount equal ranges, ids outside go to the first or last shard
+public class RangePartitioner implements Partitioner {
+    private final int shardCount;
+    private final int rangeSize;
+
+    public RangePartitioner(int shardCount, int maxOrderId) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shard count must be positive: " + shardCount);
+        }
+        this.shardCount = shardCount;
+        // in long, maxOrderId close to Integer.MAX_VALUE would overflow
+        this.rangeSize = (int) Math.max(1, ((long) maxOrderId + shardCount - 1) / shardCount);
+    }
+
+    @Override
+    public int shardFor(int orderId) {
+        return Math.max(0, Math.min(shardCount - 1, orderId / rangeSize));
+    }
+
+    @Override
+    public int getShardCount() {
+        return shardCount;
+    }
+}
@@ -0,0 +1,70 @@
+package com.shard;
+
+import com.java8.Order;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// launches 1, 2, 4 ... shard processes and measures point lookups and scatter-gather aggregation
+// usage: java com.shard.ShardBenchmark [maxShards, default 8] [totalOrders, default 1_000_000] [hash|range]
+public class ShardBenchmark {
+    private static final int CLIENT_THREADS = 16;
+    private static final long RUN_NANOS = 3_000_000_000L;
+
+    public static void main(String[] args) throws Exception {
+        int maxShards = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int totalOrders = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        String scheme = args.length > 2 ? args[2] : "hash";
+
+        for (int shards = 1; shards <= maxShards; shards *= 2) {
+            try (ShardCluster cluster = ShardCluster.launch(shards, totalOrders, scheme)) {
+                ShardedOrderRepository repository = cluster.getRepository();
+                Order check = repository.findOrderById(totalOrders / 2);
+                if (check == null || check.getId() != totalOrders / 2) {
+                    throw new IllegalStateException("order " + totalOrders / 2 + " was not found");
+                }
+                List<Integer> batch = List.of(0, 1, totalOrders / 3, totalOrders - 1, totalOrders);
+                Map<Integer, Order> found = repository.findOrdersByIds(batch);
+                if (found.size() != batch.size() - 1 || found.containsKey(totalOrders)) {
+                    throw new IllegalStateException("batched lookup returned " + found.keySet());
+                }
+                double lookups = lookupsPerSecond(repository, totalOrders);
+
+                long start = System.nanoTime();
+                int rounds = 10;
+                Map<String, Long> spend = null;
+                for (int i = 0; i < rounds; i++) {
+                    spend = repository.spendByCustomer();
+                }
+                double aggregationMillis = (System.nanoTime() - start) / 1e6 / rounds;
+                System.out.printf("%d shard(s): %,.0f lookups/s, spendByCustomer %.1f ms (%d customers)%n",
+                        shards, lookups, aggregationMillis, spend.size());
+            }
+        }
+    }
+
+    private static double lookupsPerSecond(ShardedOrderRepository repository, int totalOrders) throws InterruptedException {
+        LongAdder lookups = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread[] threads = new Thread[CLIENT_THREADS];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                while (running.get()) {
+                    repository.findOrderById(ThreadLocalRandom.current().nextInt(totalOrders));
+                    lookups.increment();
+                }
+            });
+            threads[i].start();
+        }
+        long start = System.nanoTime();
+        Thread.sleep(RUN_NANOS / 1_000_000);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return lookups.sum() / ((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,148 @@
+package com.shard;
+
+import com.java8.Order;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// talks to one ShardServer. connections are pooled so concurrent callers do not queue behind each other
+public class ShardClient implements Closeable {
+    private final int port;
+    private final ConcurrentLinkedQueue<Connection> idle = new ConcurrentLinkedQueue<>();
+
+    public ShardClient(int port) {
+        this.port = port;
+    }
+
+    public Order findOrderById(int id) throws IOException {
+        Connection connection = acquire();
+        try {
+            connection.out.writeByte(ShardProtocol.FIND_BY_ID);
+            connection.out.writeInt(id);
+            connection.out.flush();
+            Order order = ShardProtocol.readOrder(connection.in);
+            if (order != null) {
+                ShardProtocol.readOrder(connection.in);
+            }
+            release(connection);
+            return order;
+        } catch (IOException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    // one round trip for all the ids, the ids must belong to this shard
+    public Map<Integer, Order> findOrdersByIds(Collection<Integer> ids) throws IOException {
+        Connection connection = acquire();
+        try {
+            connection.out.writeByte(ShardProtocol.FIND_BY_IDS);
+            connection.out.writeInt(ids.size());
+            for (int id : ids) {
+                connection.out.writeInt(id);
+            }
+            connection.out.flush();
+            Map<Integer, Order> found = new HashMap<>();
+            for (Order order = ShardProtocol.readOrder(connection.in); order != null; order = ShardProtocol.readOrder(connection.in)) {
+                found.put(order.getId(), order);
+            }
+            release(connection);
+            return found;
+        } catch (IOException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    public List<Order> findAll() throws IOException {
+        Connection connection = acquire();
+        try {
+            connection.out.writeByte(ShardProtocol.FIND_ALL);
+            connection.out.flush();
+            List<Order> orders = new ArrayList<>();
+            for (Order order = ShardProtocol.readOrder(connection.in); order != null; order = ShardProtocol.readOrder(connection.in)) {
+                orders.add(order);
+            }
+            release(connection);
+            return orders;
+        } catch (IOException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    public Map<String, Long> spendByCustomer() throws IOException {
+        Connection connection = acquire();
+        try {
+            connection.out.writeByte(ShardProtocol.SPEND_BY_CUSTOMER);
+            connection.out.flush();
+            int size = connection.in.readInt();
+            Map<String, Long> spend = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                spend.put(connection.in.readUTF(), connection.in.readLong());
+            }
+            release(connection);
+            return spend;
+        } catch (IOException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    public void shutdownServer() throws IOException {
+        try (Connection connection = acquire()) {
+            connection.out.writeByte(ShardProtocol.SHUTDOWN);
+            connection.out.flush();
+        }
+    }
+
+    @Override
+    public void close() {
+        for (Connection connection = idle.poll(); connection != null; connection = idle.poll()) {
+            connection.close();
+        }
+    }
+
+    private Connection acquire() throws IOException {
+        Connection connection = idle.poll();
+        return connection != null ? connection : new Connection(new Socket(InetAddress.getLoopbackAddress(), port));
+    }
+
+    private void release(Connection connection) {
+        idle.offer(connection);
+    }
+
+    private static final class Connection implements Closeable {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+
+        private Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            socket.setTcpNoDelay(true);
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        @Override
+        public void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // nothing left to do with a broken connection
+            }
+        }
+    }
+}
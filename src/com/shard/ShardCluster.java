@@ -0,0 +1,116 @@
+package com.shard;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// starts one ShardServer JVM per shard on this machine and wires a ShardedOrderRepository to them.
+// every shard has to report ready within STARTUP_TIMEOUT_SECONDS of the launch, or it is killed
+// and the launch fails
+public class ShardCluster implements AutoCloseable {
+    private static final long STARTUP_TIMEOUT_SECONDS = 60;
+
+    private final List<Process> processes = new ArrayList<>();
+    private final List<ShardClient> clients = new ArrayList<>();
+    private final ExecutorService executor;
+    private final ShardedOrderRepository repository;
+
+    private ShardCluster(int shardCount, int totalOrders, String scheme) throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        String classpath = System.getProperty("java.class.path");
+        try {
+            for (int shard = 0; shard < shardCount; shard++) {
+                Process process = new ProcessBuilder(java, "-cp", classpath, ShardServer.class.getName(),
+                        String.valueOf(shard), String.valueOf(shardCount), String.valueOf(totalOrders), scheme)
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start();
+                processes.add(process);
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(STARTUP_TIMEOUT_SECONDS);
+            for (Process process : processes) {
+                clients.add(new ShardClient(awaitPort(process, deadline)));
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+        executor = Executors.newFixedThreadPool(shardCount);
+        repository = new ShardedOrderRepository(clients, Partitioner.of(scheme, shardCount, totalOrders), executor);
+    }
+
+    public static ShardCluster launch(int shardCount, int totalOrders, String scheme) throws IOException {
+        return new ShardCluster(shardCount, totalOrders, scheme);
+    }
+
+    public ShardedOrderRepository getRepository() {
+        return repository;
+    }
+
+    @Override
+    public void close() {
+        for (ShardClient client : clients) {
+            try {
+                client.shutdownServer();
+            } catch (IOException e) {
+                // the process is destroyed below anyway
+            }
+            client.close();
+        }
+        if (executor != null) {
+            executor.shutdown();
+        }
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // the READY line is read on its own thread, a child that hangs without printing it would block forever
+    private static int awaitPort(Process process, long deadline) throws IOException {
+        FutureTask<Integer> port = new FutureTask<>(() -> readPort(process));
+        Thread reader = new Thread(port, "shard-startup-reader");
+        reader.setDaemon(true);
+        reader.start();
+        try {
+            return port.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            process.destroyForcibly();
+            throw new IOException("shard process not ready within " + STARTUP_TIMEOUT_SECONDS + " s");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("reading the shard port failed", e.getCause());
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for a shard process");
+        }
+    }
+
+    private static int readPort(Process process) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (line.startsWith(ShardProtocol.READY)) {
+                return Integer.parseInt(line.substring(ShardProtocol.READY.length()).trim());
+            }
+        }
+        throw new IOException("shard process exited before it was ready");
+    }
+}
@@ -0,0 +1,46 @@
+package com.shard;
+
+import com.java8.Order;
+import com.nio.OrderCodec;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// request: one op byte followed by its arguments. orders travel in the OrderCodec format,
+// a length of -1 ends a list of orders
+final class ShardProtocol {
+    static final byte FIND_BY_ID = 1;
+    static final byte FIND_ALL = 2;
+    static final byte SPEND_BY_CUSTOMER = 3;
+    static final byte SHUTDOWN = 4;
+    // int count, then the ids. answered with the orders found, in no particular order
+    static final byte FIND_BY_IDS = 5;
+
+    static final String READY = "READY ";
+
+    private ShardProtocol() {
+    }
+
+    static void writeOrder(Order order, DataOutputStream out) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(OrderCodec.encodedSize(order));
+        OrderCodec.encode(order, buffer);
+        out.write(buffer.array(), 0, buffer.position());
+    }
+
+    static void writeEnd(DataOutputStream out) throws IOException {
+        out.writeInt(-1);
+    }
+
+    // null at the end of a list
+    static Order readOrder(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] record = new byte[length];
+        in.readFully(record);
+        return OrderCodec.decode(ByteBuffer.wrap(record));
+    }
+}
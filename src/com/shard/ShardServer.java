@@ -0,0 +1,149 @@
+package com.shard;
+
+import com.java8.Item;
+import com.java8.Order;
+import com.java8.OrderRepository;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// one shard in its own JVM, holds the orders its partitioner assigns to it and answers over loopback.
+// usage: java com.shard.ShardServer <shardIndex> <shardCount> <totalOrders> <hash|range>
+// prints "READY <port>" once it accepts connections
+public class ShardServer {
+    private final OrderRepository orderRepository;
+    private final Map<Integer, Order> ordersById = new HashMap<>();
+    private final ExecutorService workers = Executors.newCachedThreadPool();
+    private volatile boolean running = true;
+
+    public ShardServer(OrderRepository orderRepository) {
+        this.orderRepository = orderRepository;
+        for (Order order : orderRepository.findAll()) {
+            ordersById.put(order.getId(), order);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int shardIndex = Integer.parseInt(args[0]);
+        int shardCount = Integer.parseInt(args[1]);
+        int totalOrders = Integer.parseInt(args[2]);
+        Partitioner partitioner = Partitioner.of(args[3], shardCount, totalOrders);
+
+        List<Order> orders = new ArrayList<>();
+        for (int id = 0; id < totalOrders; id++) {
+            if (partitioner.shardFor(id) == shardIndex) {
+                orders.add(generateOrder(id));
+            }
+        }
+        new ShardServer(new OrderRepository(orders)).serve();
+    }
+
+    // deterministic so every run and every shard layout sees the same data
+    static Order generateOrder(int id) {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 1 + id % 4; i++) {
+            int itemId = (id * 31 + i) % 100;
+            items.add(new Item(itemId, "Item" + itemId, 100 + itemId * 5));
+        }
+        return new Order(id, items, "Customer" + id % 1000);
+    }
+
+    public void serve() throws IOException {
+        try (ServerSocket server = new ServerSocket(0, 128, InetAddress.getLoopbackAddress())) {
+            System.out.println(ShardProtocol.READY + server.getLocalPort());
+            System.out.flush();
+            while (running) {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                workers.execute(() -> handle(socket, server));
+            }
+        } catch (IOException e) {
+            if (running) {
+                throw e;
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private void handle(Socket socket, ServerSocket server) {
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16))) {
+            while (true) {
+                byte op = in.readByte();
+                switch (op) {
+                    case ShardProtocol.FIND_BY_ID:
+                        Order order = ordersById.get(in.readInt());
+                        if (order != null) {
+                            ShardProtocol.writeOrder(order, out);
+                        }
+                        ShardProtocol.writeEnd(out);
+                        break;
+                    case ShardProtocol.FIND_BY_IDS:
+                        for (int count = in.readInt(); count > 0; count--) {
+                            Order found = ordersById.get(in.readInt());
+                            if (found != null) {
+                                ShardProtocol.writeOrder(found, out);
+                            }
+                        }
+                        ShardProtocol.writeEnd(out);
+                        break;
+                    case ShardProtocol.FIND_ALL:
+                        for (Order each : orderRepository.findAll()) {
+                            ShardProtocol.writeOrder(each, out);
+                        }
+                        ShardProtocol.writeEnd(out);
+                        break;
+                    case ShardProtocol.SPEND_BY_CUSTOMER:
+                        Map<String, Long> spend = spendByCustomer();
+                        out.writeInt(spend.size());
+                        for (Map.Entry<String, Long> entry : spend.entrySet()) {
+                            out.writeUTF(entry.getKey());
+                            out.writeLong(entry.getValue());
+                        }
+                        break;
+                    case ShardProtocol.SHUTDOWN:
+                        running = false;
+                        server.close();
+                        return;
+                    default:
+                        throw new IOException("unknown op " + op);
+                }
+                out.flush();
+            }
+        } catch (EOFException e) {
+            // client closed the connection
+        } catch (IOException e) {
+            if (running) {
+                System.err.println("shard connection failed: " + e);
+            }
+        }
+    }
+
+    // the partial result this shard contributes to a cluster wide aggregation
+    private Map<String, Long> spendByCustomer() {
+        Map<String, Long> spend = new HashMap<>();
+        for (Order order : orderRepository.findAll()) {
+            long total = 0;
+            for (Item item : order.getItems()) {
+                total += item.getPrice();
+            }
+            spend.merge(order.getCustomerName(), total, Long::sum);
+        }
+        return spend;
+    }
+}
@@ -0,0 +1,122 @@
+package com.shard;
+
+import com.java8.Order;
+import com.java8.OrderRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BinaryOperator;
+
+// OrderRepository whose orders live in several ShardServers. lookups by id go straight to the
+// owning shard, a batch of ids is grouped by shard and each group sent as one request, in parallel.
+// whole repository reads and aggregations are sent to every shard in parallel.
+// the partial results are merged in shard order (shard 0 first) so findAll always lists orders the
+// same way, a slow shard delays the merge but not the other shards' work
+public class ShardedOrderRepository extends OrderRepository {
+    private final List<ShardClient> shards;
+    private final Partitioner partitioner;
+    private final ExecutorService executor;
+
+    public ShardedOrderRepository(List<ShardClient> shards, Partitioner partitioner, ExecutorService executor) {
+        super(List.of());
+        if (shards.size() != partitioner.getShardCount()) {
+            throw new IllegalArgumentException(shards.size() + " shards for a partitioner expecting " + partitioner.getShardCount());
+        }
+        this.shards = shards;
+        this.partitioner = partitioner;
+        this.executor = executor;
+    }
+
+    @Override
+    public List<Order> findAll() {
+        return scatterGather(shard -> shards.get(shard).findAll(), (left, right) -> {
+            List<Order> merged = new ArrayList<>(left.size() + right.size());
+            merged.addAll(left);
+            merged.addAll(right);
+            return merged;
+        });
+    }
+
+    @Override
+    public Order findOrderById(int targetId) {
+        try {
+            return shards.get(partitioner.shardFor(targetId)).findOrderById(targetId);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Optional<Order> findOrderByIdWithOptional(int targetId) {
+        return Optional.ofNullable(findOrderById(targetId));
+    }
+
+    @Override
+    public Map<Integer, Order> findOrdersByIds(Collection<Integer> targetIds) {
+        List<Set<Integer>> idsByShard = new ArrayList<>(shards.size());
+        for (int shard = 0; shard < shards.size(); shard++) {
+            idsByShard.add(new HashSet<>());
+        }
+        for (Integer targetId : targetIds) {
+            // a null id matches no order, as in OrderRepository
+            if (targetId != null) {
+                idsByShard.get(partitioner.shardFor(targetId)).add(targetId);
+            }
+        }
+        return scatterGather(shard -> idsByShard.get(shard).isEmpty()
+                ? new HashMap<>() : shards.get(shard).findOrdersByIds(idsByShard.get(shard)), (left, right) -> {
+            left.putAll(right);
+            return left;
+        });
+    }
+
+    // each shard sums its own orders, only the per customer totals cross the wire
+    public Map<String, Long> spendByCustomer() {
+        return scatterGather(shard -> shards.get(shard).spendByCustomer(), (left, right) -> {
+            right.forEach((customer, spend) -> left.merge(customer, spend, Long::sum));
+            return left;
+        });
+    }
+
+    private <R> R scatterGather(ShardCall<R> call, BinaryOperator<R> merge) {
+        List<CompletableFuture<R>> partials = new ArrayList<>();
+        for (int index = 0; index < shards.size(); index++) {
+            int shard = index;
+            partials.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return call.apply(shard);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, executor));
+        }
+        try {
+            R result = partials.get(0).join();
+            for (int i = 1; i < partials.size(); i++) {
+                result = merge.apply(result, partials.get(i).join());
+            }
+            return result;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ShardCall<R> {
+        R apply(int shard) throws IOException;
+    }
+}
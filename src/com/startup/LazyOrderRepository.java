@@ -0,0 +1,199 @@
+package com.startup;
+
+import com.java8.Order;
+import com.java8.OrderRepository;
+import com.nio.OrderCodec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// OrderRepository backed by an OrderImage file. opening it only reads the header and page table,
+// a page of orders is mapped and decoded the first time something on it is asked for.
+// findAll() is a view that loads pages as it is walked, in id order
+public class LazyOrderRepository extends OrderRepository implements Closeable {
+    private final FileChannel channel;
+    private final int pageSize;
+    private final int orderCount;
+    private final long[] pageOffsets;
+    private final int[] pageLengths;
+    private final int[] firstIds;
+    private final int[] lastIds;
+    private final AtomicReferenceArray<Order[]> pages;
+    private final List<Order> view = new LazyView();
+
+    public LazyOrderRepository(Path image) throws IOException {
+        super(List.of());
+        channel = FileChannel.open(image, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = read(0, OrderImage.HEADER_SIZE);
+            if (header.getInt() != OrderImage.MAGIC) {
+                throw new IOException(image + " is not an order image");
+            }
+            pageSize = header.getInt();
+            int pageCount = header.getInt();
+            long count = header.getLong();
+            if (count > Integer.MAX_VALUE) {
+                throw new IOException("image holds more orders than a list can index: " + count);
+            }
+            orderCount = (int) count;
+            pageOffsets = new long[pageCount];
+            pageLengths = new int[pageCount];
+            firstIds = new int[pageCount];
+            lastIds = new int[pageCount];
+            ByteBuffer table = read(OrderImage.HEADER_SIZE, pageCount * OrderImage.PAGE_ENTRY_SIZE);
+            for (int page = 0; page < pageCount; page++) {
+                pageOffsets[page] = table.getLong();
+                pageLengths[page] = table.getInt();
+                firstIds[page] = table.getInt();
+                lastIds[page] = table.getInt();
+                table.getInt();
+            }
+            pages = new AtomicReferenceArray<>(pageCount);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Order> findAll() {
+        return view;
+    }
+
+    @Override
+    public Order findOrderById(int targetId) {
+        int low = 0;
+        int high = firstIds.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (lastIds[mid] < targetId) {
+                low = mid + 1;
+            } else if (firstIds[mid] > targetId) {
+                high = mid - 1;
+            } else {
+                Order[] orders = page(mid);
+                int index = binarySearch(orders, targetId);
+                return index < 0 ? null : orders[index];
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Optional<Order> findOrderByIdWithOptional(int targetId) {
+        return Optional.ofNullable(findOrderById(targetId));
+    }
+
+    @Override
+    public Map<Integer, Order> findOrdersByIds(Collection<Integer> targetIds) {
+        Map<Integer, Order> found = new HashMap<>();
+        for (Integer targetId : targetIds) {
+            Order order = findOrderById(targetId);
+            if (order != null) {
+                found.put(targetId, order);
+            }
+        }
+        return found;
+    }
+
+    public int getLoadedPages() {
+        int loaded = 0;
+        for (int page = 0; page < pages.length(); page++) {
+            if (pages.get(page) != null) {
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    public int getPageCount() {
+        return pages.length();
+    }
+
+    // decodes every page that is not loaded yet
+    public void warmUp() {
+        for (int page = 0; page < pages.length(); page++) {
+            page(page);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private Order[] page(int page) {
+        Order[] orders = pages.get(page);
+        if (orders != null) {
+            return orders;
+        }
+        try {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, pageOffsets[page], pageLengths[page]);
+            int count = page == pages.length() - 1 ? orderCount - page * pageSize : pageSize;
+            orders = new Order[count];
+            for (int i = 0; i < count; i++) {
+                buffer.getInt();
+                orders[i] = OrderCodec.decode(buffer);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("could not load page " + page, e);
+        }
+        // two threads may decode the same page, the first one to publish wins
+        return pages.compareAndSet(page, null, orders) ? orders : pages.get(page);
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("order image is truncated");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static int binarySearch(Order[] orders, int targetId) {
+        int low = 0;
+        int high = orders.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int id = orders[mid].getId();
+            if (id < targetId) {
+                low = mid + 1;
+            } else if (id > targetId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private final class LazyView extends AbstractList<Order> implements RandomAccess {
+        @Override
+        public Order get(int index) {
+            if (index < 0 || index >= orderCount) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + orderCount);
+            }
+            return page(index / pageSize)[index % pageSize];
+        }
+
+        @Override
+        public int size() {
+            return orderCount;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.startup;
+
+import com.java8.Order;
+import com.nio.OrderCodec;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// prebuilt binary image of a repository that can be opened without decoding it.
+// layout: header [int magic][int pageSize][int pageCount][long orderCount]
+//         page table, per page [long offset][int length][int firstId][int lastId][int count]
+//         pages, each one a run of OrderCodec records
+// orders are stored sorted by id so a lookup only has to decode the one page that can hold the id
+public class OrderImage {
+    static final int MAGIC = 0x4F524432;
+    static final int HEADER_SIZE = 3 * Integer.BYTES + Long.BYTES;
+    static final int PAGE_ENTRY_SIZE = Long.BYTES + 4 * Integer.BYTES;
+    public static final int DEFAULT_PAGE_SIZE = 4096;
+
+    private OrderImage() {
+    }
+
+    public static void write(List<Order> orders, Path file) throws IOException {
+        write(orders, file, DEFAULT_PAGE_SIZE);
+    }
+
+    public static void write(List<Order> orders, Path file, int pageSize) throws IOException {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("page size must be positive: " + pageSize);
+        }
+        List<Order> sorted = new ArrayList<>(orders);
+        for (Order order : sorted) {
+            if (order.getId() == null) {
+                throw new IllegalArgumentException("every order needs an id to be imaged: " + order);
+            }
+        }
+        sorted.sort(Comparator.comparing(Order::getId));
+        int pageCount = (sorted.size() + pageSize - 1) / pageSize;
+        ByteBuffer table = ByteBuffer.allocate(HEADER_SIZE + pageCount * PAGE_ENTRY_SIZE);
+        table.putInt(MAGIC).putInt(pageSize).putInt(pageCount).putLong(sorted.size());
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long offset = table.capacity();
+            ByteBuffer page = ByteBuffer.allocate(1 << 20);
+            for (int first = 0; first < sorted.size(); first += pageSize) {
+                List<Order> pageOrders = sorted.subList(first, Math.min(first + pageSize, sorted.size()));
+                page = encode(pageOrders, page);
+                table.putLong(offset).putInt(page.remaining())
+                        .putInt(pageOrders.get(0).getId()).putInt(pageOrders.get(pageOrders.size() - 1).getId())
+                        .putInt(pageOrders.size());
+                offset += writeFully(channel, page, offset);
+            }
+            table.flip();
+            writeFully(channel, table, 0);
+        }
+    }
+
+    // a positional write may write less than asked, keep going until the buffer is drained
+    private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int length = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        return length;
+    }
+
+    // encodes the page into the buffer, growing it when the page does not fit, and returns it flipped
+    private static ByteBuffer encode(List<Order> orders, ByteBuffer buffer) {
+        while (true) {
+            buffer.clear();
+            try {
+                for (Order order : orders) {
+                    OrderCodec.encode(order, buffer);
+                }
+                buffer.flip();
+                return buffer;
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+    }
+}
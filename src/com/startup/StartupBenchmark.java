@@ -0,0 +1,106 @@
+package com.startup;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+// launches fresh JVMs and times, from process start, the first findOrderById answer and full warm-up.
+// cold: no class data sharing archive. warm: an AppCDS archive recorded from a previous lazy run
+// and the image already in the OS page cache.
+// usage: java com.startup.StartupBenchmark [orders, default 2_000_000]
+public class StartupBenchmark {
+    public static void main(String[] args) throws Exception {
+        int orders = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        Path directory = Files.createTempDirectory("startup");
+        Path image = directory.resolve("orders.img");
+        Path archive = directory.resolve("orders.jsa");
+        Path jar = directory.resolve("classes.jar");
+        try {
+            // class data sharing only archives classes loaded from jars, never from class directories
+            String classpath = jarDirectories(System.getProperty("java.class.path"), jar);
+            run(classpath, List.of(), "write", image.toString(), String.valueOf(orders));
+            System.out.printf("image of %,d orders: %,d bytes%n", orders, Files.size(image));
+            run(classpath, List.of("-XX:ArchiveClassesAtExit=" + archive), "lazy", image.toString());
+
+            String[][] modes = {
+                    {"generate", String.valueOf(orders)},
+                    {"eager", image.toString()},
+                    {"lazy", image.toString()},
+            };
+            for (String[] mode : modes) {
+                long[] cold = run(classpath, List.of(), mode);
+                long[] warm = run(classpath, List.of("-XX:SharedArchiveFile=" + archive), mode);
+                System.out.printf("%-8s cold: first answer %5d ms, warmed up %5d ms | warm (AppCDS): first answer %5d ms, warmed up %5d ms%n",
+                        mode[0], cold[0], cold[1], warm[0], warm[1]);
+            }
+        } finally {
+            Files.deleteIfExists(image);
+            Files.deleteIfExists(archive);
+            Files.deleteIfExists(jar);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    // milliseconds from launch to the FIRST and WARM lines
+    private static long[] run(String classpath, List<String> jvmOptions, String... arguments) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(classpath);
+        command.add(StartupDemo.class.getName());
+        command.addAll(List.of(arguments));
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        long[] times = new long[2];
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                long elapsed = (System.nanoTime() - start) / 1_000_000;
+                if (line.startsWith("FIRST")) {
+                    times[0] = elapsed;
+                } else if (line.startsWith("WARM")) {
+                    times[1] = elapsed;
+                } else if (!line.isBlank()) {
+                    System.out.println("  " + line);
+                }
+            }
+        }
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("startup run failed: " + command);
+        }
+        return times;
+    }
+
+    // packs every directory on the class path into one jar and returns the class path using it
+    private static String jarDirectories(String classpath, Path jar) throws IOException {
+        List<String> entries = new ArrayList<>();
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            for (String entry : classpath.split(File.pathSeparator)) {
+                Path path = Paths.get(entry);
+                if (!Files.isDirectory(path)) {
+                    entries.add(entry);
+                    continue;
+                }
+                try (Stream<Path> files = Files.walk(path)) {
+                    for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                        out.putNextEntry(new JarEntry(path.relativize(file).toString().replace(File.separatorChar, '/')));
+                        Files.copy(file, out);
+                        out.closeEntry();
+                    }
+                }
+            }
+        }
+        entries.add(0, jar.toString());
+        return String.join(File.pathSeparator, entries);
+    }
+}
@@ -0,0 +1,72 @@
+package com.startup;
+
+import com.java8.Item;
+import com.java8.Order;
+import com.java8.OrderRepository;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+// one startup as StartupBenchmark sees it: build or open a repository, answer one findOrderById,
+// then touch everything. prints FIRST after the first answer and WARM once fully loaded.
+// usage: java com.startup.StartupDemo generate <orders>
+//        java com.startup.StartupDemo eager <image>
+//        java com.startup.StartupDemo lazy <image>
+//        java com.startup.StartupDemo write <image> <orders>
+//
+// to use class data sharing for the domain and repository classes record an archive once with
+//     java -XX:ArchiveClassesAtExit=orders.jsa -cp out com.startup.StartupDemo lazy orders.img
+// and start later JVMs with -XX:SharedArchiveFile=orders.jsa
+public class StartupDemo {
+    public static void main(String[] args) throws Exception {
+        String mode = args[0];
+        if (mode.equals("write")) {
+            OrderImage.write(generateOrders(Integer.parseInt(args[2])), Paths.get(args[1]));
+            return;
+        }
+        OrderRepository orderRepository;
+        LazyOrderRepository lazy = null;
+        switch (mode) {
+            case "generate":
+                orderRepository = new OrderRepository(generateOrders(Integer.parseInt(args[1])));
+                break;
+            case "eager":
+                lazy = new LazyOrderRepository(Paths.get(args[1]));
+                lazy.warmUp();
+                orderRepository = lazy;
+                break;
+            case "lazy":
+                lazy = new LazyOrderRepository(Paths.get(args[1]));
+                orderRepository = lazy;
+                break;
+            default:
+                throw new IllegalArgumentException("unknown mode " + mode);
+        }
+        int size = orderRepository.findAll().size();
+        Order first = orderRepository.findOrderById(size / 2);
+        System.out.println("FIRST " + first.getId());
+
+        long total = 0;
+        for (Order order : orderRepository.findAll()) {
+            total += order.getItems().size();
+        }
+        System.out.println("WARM " + total);
+        if (lazy != null) {
+            lazy.close();
+        }
+    }
+
+    static List<Order> generateOrders(int count) {
+        List<Order> orders = new ArrayList<>(count);
+        for (int id = 0; id < count; id++) {
+            List<Item> items = new ArrayList<>();
+            for (int i = 0; i < 1 + id % 3; i++) {
+                int itemId = (id + i) % 50;
+                items.add(new Item(itemId, "Item" + itemId, 100 + itemId * 10));
+            }
+            orders.add(new Order(id, items, "Customer" + id % 500));
+        }
+        return orders;
+    }
+}
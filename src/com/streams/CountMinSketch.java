@@ -0,0 +1,64 @@
+package com.streams;
+
+// frequency estimates in a fixed depth x width table of counters. an estimate never undercounts
+// and overcounts by at most e * total / width with probability 1 - e^-depth.
+// sketches with the same shape merge by adding the tables
+public class CountMinSketch {
+	private final int depth;
+	private final int width;
+	private final long[] table;
+	private long total;
+
+	public CountMinSketch(int depth, int width) {
+		if (depth < 1 || width < 1 || Integer.bitCount(width) != 1) {
+			throw new IllegalArgumentException("depth must be positive and width a power of two: " + depth + "x" + width);
+		}
+		this.depth = depth;
+		this.width = width;
+		this.table = new long[depth * width];
+	}
+
+	public void add(Object value) {
+		add(value, 1);
+	}
+
+	public void add(Object value, long count) {
+		long hash = Hashes.hash(value);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		for (int row = 0; row < depth; row++) {
+			table[row * width + ((h1 + row * h2) & (width - 1))] += count;
+		}
+		total += count;
+	}
+
+	public long estimate(Object value) {
+		long hash = Hashes.hash(value);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		long min = Long.MAX_VALUE;
+		for (int row = 0; row < depth; row++) {
+			min = Math.min(min, table[row * width + ((h1 + row * h2) & (width - 1))]);
+		}
+		return min;
+	}
+
+	public CountMinSketch merge(CountMinSketch other) {
+		if (other.depth != depth || other.width != width) {
+			throw new IllegalArgumentException("cannot merge sketches of different shapes");
+		}
+		for (int i = 0; i < table.length; i++) {
+			table[i] += other.table[i];
+		}
+		total += other.total;
+		return this;
+	}
+
+	public long getTotal() {
+		return total;
+	}
+
+	public long memoryBytes() {
+		return (long) table.length * Long.BYTES;
+	}
+}
@@ -0,0 +1,59 @@
+package com.streams;
+
+// 64 bit hashes for the sketches. at a billion distinct keys a 32 bit hashCode collides for
+// about one key in ten, so numbers and strings are hashed from their contents to 64 bits.
+// any other key falls back to its hashCode and collides like it
+final class Hashes {
+	private static final long C1 = 0x87c37b91114253d5L;
+	private static final long C2 = 0x4cf5ad432745937fL;
+
+	private Hashes() {
+	}
+
+	// 64 bit finalizer from MurmurHash3, spreads every input bit over the whole result
+	static long mix64(long value) {
+		value ^= value >>> 33;
+		value *= 0xff51afd7ed558ccdL;
+		value ^= value >>> 33;
+		value *= 0xc4ceb9fe1a85ec53L;
+		value ^= value >>> 33;
+		return value;
+	}
+
+	static long hash(Object value) {
+		if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			return mix64(((Number) value).longValue());
+		}
+		if (value instanceof CharSequence) {
+			return hash((CharSequence) value);
+		}
+		return mix64(value == null ? 0 : value.hashCode());
+	}
+
+	// the MurmurHash3 x64 block step over four chars at a time, then the finalizer above
+	static long hash(CharSequence chars) {
+		int length = chars.length();
+		long hash = length;
+		int i = 0;
+		for (; i + 4 <= length; i += 4) {
+			long block = chars.charAt(i) | (long) chars.charAt(i + 1) << 16
+					| (long) chars.charAt(i + 2) << 32 | (long) chars.charAt(i + 3) << 48;
+			hash ^= mixBlock(block);
+			hash = Long.rotateLeft(hash, 27) * 5 + 0x52dce729;
+		}
+		if (i < length) {
+			long block = 0;
+			for (int shift = 0; i < length; i++, shift += 16) {
+				block |= (long) chars.charAt(i) << shift;
+			}
+			hash ^= mixBlock(block);
+		}
+		return mix64(hash);
+	}
+
+	private static long mixBlock(long block) {
+		block *= C1;
+		block = Long.rotateLeft(block, 31);
+		return block * C2;
+	}
+}
@@ -0,0 +1,35 @@
+package com.streams;
+
+// a key reported by SpaceSaving, the true count lies between count - error and count
+public class HeavyHitter<K> {
+	private final K key;
+	private final long count;
+	private final long error;
+
+	public HeavyHitter(K key, long count, long error) {
+		this.key = key;
+		this.count = count;
+		this.error = error;
+	}
+
+	public K getKey() {
+		return key;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getError() {
+		return error;
+	}
+
+	@Override
+	public String toString() {
+		return "HeavyHitter{" +
+				"key=" + key +
+				", count=" + count +
+				", error=" + error +
+				'}';
+	}
+}
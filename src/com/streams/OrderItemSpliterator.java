@@ -0,0 +1,101 @@
+package com.streams;
+
+import com.java8.Item;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+// walks the item lists of all orders as one flat sequence. every item has a global position,
+// prefix[i] is the position of the first item of list i, and a split cuts that position
+// range in half, so one order with 100K items is shared between workers like any other range.
+// the lists must support fast get(index), as ArrayList and Arrays.asList do. items may be null
+class OrderItemSpliterator implements Spliterator<Item> {
+	private final List<List<Item>> itemLists;
+	private final long[] prefix;
+	private long index;
+	private final long fence;
+	private int orderIndex;
+
+	OrderItemSpliterator(List<List<Item>> itemLists, long[] prefix) {
+		this(itemLists, prefix, 0, prefix[itemLists.size()]);
+	}
+
+	private OrderItemSpliterator(List<List<Item>> itemLists, long[] prefix, long index, long fence) {
+		this.itemLists = itemLists;
+		this.prefix = prefix;
+		this.index = index;
+		this.fence = fence;
+		this.orderIndex = locate(index);
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super Item> action) {
+		if (index >= fence) {
+			return false;
+		}
+		while (prefix[orderIndex + 1] <= index) {
+			orderIndex++;
+		}
+		action.accept(itemLists.get(orderIndex).get((int) (index - prefix[orderIndex])));
+		index++;
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super Item> action) {
+		long position = index;
+		int current = orderIndex;
+		while (position < fence) {
+			long orderEnd = Math.min(prefix[current + 1], fence);
+			if (position < orderEnd) {
+				List<Item> items = itemLists.get(current);
+				int from = (int) (position - prefix[current]);
+				int to = (int) (orderEnd - prefix[current]);
+				for (int i = from; i < to; i++) {
+					action.accept(items.get(i));
+				}
+				position = orderEnd;
+			}
+			current++;
+		}
+		index = fence;
+	}
+
+	@Override
+	public Spliterator<Item> trySplit() {
+		long mid = (index + fence) >>> 1;
+		if (mid <= index) {
+			return null;
+		}
+		OrderItemSpliterator prefixHalf = new OrderItemSpliterator(itemLists, prefix, index, mid);
+		index = mid;
+		orderIndex = locate(mid);
+		return prefixHalf;
+	}
+
+	@Override
+	public long estimateSize() {
+		return fence - index;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | SIZED | SUBSIZED;
+	}
+
+	// last list whose first item is at or before the position, skipping empty lists
+	private int locate(long position) {
+		int low = 0;
+		int high = itemLists.size() - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (prefix[mid] <= position) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return Math.max(low, 0);
+	}
+}
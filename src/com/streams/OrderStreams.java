@@ -0,0 +1,50 @@
+package com.streams;
+
+import com.java8.Item;
+import com.java8.Order;
+import com.java8.OrderRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// streams over a repository that split by item count, use them instead of
+// findAll().parallelStream().flatMap(order -> order.getItems().stream()) when orders are skewed
+public class OrderStreams {
+	private OrderStreams() {
+	}
+
+	public static Stream<Order> orders(OrderRepository orderRepository, boolean parallel) {
+		List<Order> orders = orderRepository.findAll();
+		if (!(orders instanceof RandomAccess)) {
+			orders = new ArrayList<>(orders);
+		}
+		long[] weight = new long[orders.size() + 1];
+		for (int i = 0; i < orders.size(); i++) {
+			weight[i + 1] = weight[i] + itemCount(orders.get(i)) + 1;
+		}
+		return StreamSupport.stream(new WeightedOrderSpliterator(orders, weight), parallel);
+	}
+
+	// null orders and null item lists add no items, null items are passed on as they are
+	public static Stream<Item> items(OrderRepository orderRepository, boolean parallel) {
+		List<Order> orders = orderRepository.findAll();
+		List<List<Item>> itemLists = new ArrayList<>(orders.size());
+		long[] prefix = new long[orders.size() + 1];
+		int i = 0;
+		for (Order order : orders) {
+			List<Item> items = order == null || order.getItems() == null ? List.of() : order.getItems();
+			// the spliterator indexes into the lists, the orders themselves are left alone
+			itemLists.add(items instanceof RandomAccess ? items : new ArrayList<>(items));
+			prefix[i + 1] = prefix[i] + items.size();
+			i++;
+		}
+		return StreamSupport.stream(new OrderItemSpliterator(itemLists, prefix), parallel);
+	}
+
+	private static int itemCount(Order order) {
+		return order == null || order.getItems() == null ? 0 : order.getItems().size();
+	}
+}
@@ -0,0 +1,157 @@
+package com.streams;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Space-Saving heavy hitters: keeps at most capacity counters. an unseen key takes over the
+// smallest counter and inherits its count as error, so count - error <= true count <= count.
+// any key seen more than total / capacity times is guaranteed to be tracked.
+// counters live in a min-heap keyed by count so the smallest one is found in O(1)
+public class SpaceSaving<K> {
+	private final int capacity;
+	private final Map<K, Counter<K>> counters;
+	private final List<Counter<K>> heap;
+	private long total;
+
+	public SpaceSaving(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity must be positive: " + capacity);
+		}
+		this.capacity = capacity;
+		this.counters = new HashMap<>(capacity * 2);
+		this.heap = new ArrayList<>(capacity);
+	}
+
+	public void add(K key) {
+		add(key, 1);
+	}
+
+	public void add(K key, long count) {
+		total += count;
+		Counter<K> counter = counters.get(key);
+		if (counter != null) {
+			counter.count += count;
+			siftDown(counter.heapIndex);
+		} else if (heap.size() < capacity) {
+			counter = new Counter<>(key, count, 0);
+			counters.put(key, counter);
+			counter.heapIndex = heap.size();
+			heap.add(counter);
+			siftUp(counter.heapIndex);
+		} else {
+			counter = heap.get(0);
+			counters.remove(counter.key);
+			counter.key = key;
+			counter.error = counter.count;
+			counter.count += count;
+			counters.put(key, counter);
+			siftDown(0);
+		}
+	}
+
+	// mergeable summaries (Agarwal et al.): a key missing from one side may have been counted
+	// there up to that side's minimum, so it is charged that minimum as extra error
+	public SpaceSaving<K> merge(SpaceSaving<K> other) {
+		long minThis = heap.size() < capacity ? 0 : heap.get(0).count;
+		long minOther = other.heap.size() < other.capacity ? 0 : other.heap.get(0).count;
+		Map<K, Counter<K>> merged = new HashMap<>();
+		for (Counter<K> counter : heap) {
+			Counter<K> match = other.counters.get(counter.key);
+			merged.put(counter.key, match == null
+					? new Counter<>(counter.key, counter.count + minOther, counter.error + minOther)
+					: new Counter<>(counter.key, counter.count + match.count, counter.error + match.error));
+		}
+		for (Counter<K> counter : other.heap) {
+			if (!counters.containsKey(counter.key)) {
+				merged.put(counter.key, new Counter<>(counter.key, counter.count + minThis, counter.error + minThis));
+			}
+		}
+		List<Counter<K>> kept = new ArrayList<>(merged.values());
+		kept.sort((a, b) -> Long.compare(b.count, a.count));
+		counters.clear();
+		heap.clear();
+		for (int i = 0; i < Math.min(capacity, kept.size()); i++) {
+			Counter<K> counter = kept.get(i);
+			counters.put(counter.key, counter);
+			counter.heapIndex = heap.size();
+			heap.add(counter);
+			siftUp(counter.heapIndex);
+		}
+		total += other.total;
+		return this;
+	}
+
+	public List<HeavyHitter<K>> top(int n) {
+		List<Counter<K>> sorted = new ArrayList<>(heap);
+		sorted.sort((a, b) -> Long.compare(b.count, a.count));
+		List<HeavyHitter<K>> result = new ArrayList<>();
+		for (int i = 0; i < Math.min(n, sorted.size()); i++) {
+			Counter<K> counter = sorted.get(i);
+			result.add(new HeavyHitter<>(counter.key, counter.count, counter.error));
+		}
+		return result;
+	}
+
+	public long getTotal() {
+		return total;
+	}
+
+	public int size() {
+		return heap.size();
+	}
+
+	private void siftUp(int index) {
+		Counter<K> counter = heap.get(index);
+		while (index > 0) {
+			int parent = (index - 1) >>> 1;
+			Counter<K> parentCounter = heap.get(parent);
+			if (parentCounter.count <= counter.count) {
+				break;
+			}
+			place(parentCounter, index);
+			index = parent;
+		}
+		place(counter, index);
+	}
+
+	private void siftDown(int index) {
+		Counter<K> counter = heap.get(index);
+		int size = heap.size();
+		while (true) {
+			int child = 2 * index + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && heap.get(child + 1).count < heap.get(child).count) {
+				child++;
+			}
+			Counter<K> childCounter = heap.get(child);
+			if (counter.count <= childCounter.count) {
+				break;
+			}
+			place(childCounter, index);
+			index = child;
+		}
+		place(counter, index);
+	}
+
+	private void place(Counter<K> counter, int index) {
+		heap.set(index, counter);
+		counter.heapIndex = index;
+	}
+
+	private static class Counter<K> {
+		private K key;
+		private long count;
+		private long error;
+		private int heapIndex;
+
+		private Counter(K key, long count, long error) {
+			this.key = key;
+			this.count = count;
+			this.error = error;
+		}
+	}
+}
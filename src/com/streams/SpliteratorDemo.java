@@ -0,0 +1,75 @@
+package com.streams;
+
+import com.java8.Item;
+import com.java8.Order;
+import com.java8.OrderRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// skewed data set: a few orders with 100K items each and many tiny orders.
+// flatMap hands each big order to a single worker, the item spliterator spreads it over all of them
+public class SpliteratorDemo {
+	private static final int BIG_ORDERS = 8;
+	private static final int BIG_ORDER_ITEMS = 100_000;
+	private static final int SMALL_ORDERS = 100_000;
+
+	public static void main(String[] args) {
+		OrderRepository orderRepository = new OrderRepository(skewedOrders());
+		System.out.println("workers: " + Runtime.getRuntime().availableProcessors());
+
+		for (int round = 0; round < 5; round++) {
+			long sequential = time(() -> orderRepository.findAll().stream()
+					.flatMap(order -> order.getItems().stream()));
+			long flatMap = time(() -> orderRepository.findAll().parallelStream()
+					.flatMap(order -> order.getItems().stream()));
+			long spliterator = time(() -> OrderStreams.items(orderRepository, true));
+			long weighted = time(() -> OrderStreams.orders(orderRepository, true)
+					.flatMap(order -> order.getItems().stream()));
+			System.out.printf("sequential %d ms, parallel flatMap %d ms (%.1fx), item spliterator %d ms (%.1fx), weighted orders %d ms (%.1fx)%n",
+					sequential, flatMap, (double) sequential / flatMap, spliterator, (double) sequential / spliterator,
+					weighted, (double) sequential / weighted);
+		}
+	}
+
+	private static long time(Supplier<Stream<Item>> items) {
+		long start = System.nanoTime();
+		long checksum = items.get().mapToLong(SpliteratorDemo::expensivePrice).sum();
+		long elapsed = (System.nanoTime() - start) / 1_000_000;
+		if (checksum == 42) {
+			System.out.println("unlikely");
+		}
+		return elapsed;
+	}
+
+	// stands in for real per item work
+	private static long expensivePrice(Item item) {
+		long value = item.getPrice();
+		for (int i = 0; i < 200; i++) {
+			value = value * 31 + item.getId() ^ (value >>> 7);
+		}
+		return value;
+	}
+
+	private static List<Order> skewedOrders() {
+		List<Order> orders = new ArrayList<>();
+		int id = 0;
+		for (int i = 0; i < BIG_ORDERS; i++) {
+			orders.add(new Order(id++, items(BIG_ORDER_ITEMS), "Big" + i));
+		}
+		for (int i = 0; i < SMALL_ORDERS; i++) {
+			orders.add(new Order(id++, items(1 + i % 3), "Small" + i));
+		}
+		return orders;
+	}
+
+	private static List<Item> items(int count) {
+		List<Item> items = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			items.add(new Item(i, "Item" + i, 100 + i % 500));
+		}
+		return items;
+	}
+}
@@ -0,0 +1,77 @@
+package com.streams;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.stream.Collector;
+
+// bounded memory alternatives to groupingBy for analytics over large streams.
+// every collector has a combiner, so they work unchanged on parallel streams, e.g.
+//     orders.stream().collect(StreamingCollectors.topK(3, comparing(order -> order.getItems().size())))
+//     items.parallelStream().collect(StreamingCollectors.heavyHitters(100, Item::getName))
+//     orders.stream().collect(StreamingCollectors.approximateDistinct(Order::getCustomerName))
+public class StreamingCollectors {
+	private StreamingCollectors() {
+	}
+
+	// exact top k, largest first, using a min-heap of size k
+	public static <T> Collector<T, ?, List<T>> topK(int k, Comparator<? super T> comparator) {
+		if (k < 1) {
+			throw new IllegalArgumentException("k must be positive: " + k);
+		}
+		return Collector.of(
+				() -> new PriorityQueue<T>(k + 1, comparator),
+				(heap, value) -> offer(heap, value, k, comparator),
+				(left, right) -> {
+					for (T value : right) {
+						offer(left, value, k, comparator);
+					}
+					return left;
+				},
+				heap -> {
+					List<T> result = new ArrayList<>(heap);
+					result.sort(comparator.reversed());
+					return result;
+				});
+	}
+
+	public static <T, K> Collector<T, ?, SpaceSaving<K>> heavyHitters(int capacity, Function<? super T, ? extends K> key) {
+		return Collector.of(
+				() -> new SpaceSaving<K>(capacity),
+				(summary, value) -> summary.add(key.apply(value)),
+				SpaceSaving::merge,
+				Collector.Characteristics.UNORDERED);
+	}
+
+	public static <T> Collector<T, ?, CountMinSketch> countMinSketch(int depth, int width, Function<? super T, ?> key) {
+		return Collector.of(
+				() -> new CountMinSketch(depth, width),
+				(sketch, value) -> sketch.add(key.apply(value)),
+				CountMinSketch::merge,
+				Collector.Characteristics.UNORDERED);
+	}
+
+	public static <T> Collector<T, ?, Long> approximateDistinct(Function<? super T, ?> key) {
+		return approximateDistinct(HyperLogLog.DEFAULT_PRECISION, key);
+	}
+
+	public static <T> Collector<T, ?, Long> approximateDistinct(int precision, Function<? super T, ?> key) {
+		return Collector.of(
+				() -> new HyperLogLog(precision),
+				(sketch, value) -> sketch.add(key.apply(value)),
+				HyperLogLog::merge,
+				HyperLogLog::estimate,
+				Collector.Characteristics.UNORDERED);
+	}
+
+	private static <T> void offer(PriorityQueue<T> heap, T value, int k, Comparator<? super T> comparator) {
+		if (heap.size() < k) {
+			heap.add(value);
+		} else if (comparator.compare(value, heap.peek()) > 0) {
+			heap.poll();
+			heap.add(value);
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package com.streams;
+
+import com.java8.Item;
+import com.java8.Order;
+import com.java8.OrderRepository;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.LongStream;
+
+// usage: java com.streams.StreamingCollectorsDemo [simulatedItems, default 1_000_000_000]
+public class StreamingCollectorsDemo {
+	private static final int DISTINCT_KEYS = 10_000_000;
+
+	public static void main(String[] args) {
+		OrderRepository orderRepository = new OrderRepository();
+		List<Order> orders = orderRepository.findAll();
+
+		//top 3 orders by total price
+		List<Order> topOrders = orders.stream()
+				.collect(StreamingCollectors.topK(3, Comparator.comparingInt(StreamingCollectorsDemo::totalPrice)));
+		System.out.println(topOrders);
+
+		//most frequently ordered items
+		SpaceSaving<String> popularItems = orders.stream()
+				.flatMap(order -> order.getItems().stream())
+				.collect(StreamingCollectors.heavyHitters(10, Item::getName));
+		System.out.println(popularItems.top(3));
+
+		//number of distinct customers
+		long customers = orders.stream()
+				.collect(StreamingCollectors.approximateDistinct(Order::getCustomerName));
+		System.out.println("Distinct customers: " + customers);
+
+		simulate(args.length > 0 ? Long.parseLong(args[0]) : 1_000_000_000L);
+	}
+
+	// keys are log-uniform over DISTINCT_KEYS, so a handful of keys take most of the volume
+	private static void simulate(long itemCount) {
+		System.out.printf("%nsimulating %,d items over %,d possible keys%n", itemCount, DISTINCT_KEYS);
+		long[] exact = new long[DISTINCT_KEYS];
+		for (long i = 0; i < itemCount; i++) {
+			exact[key(i)]++;
+		}
+		long exactDistinct = 0;
+		for (long count : exact) {
+			if (count > 0) {
+				exactDistinct++;
+			}
+		}
+
+		long start = System.nanoTime();
+		long distinct = LongStream.range(0, itemCount).parallel()
+				.mapToObj(i -> (long) key(i))
+				.collect(StreamingCollectors.approximateDistinct(key -> key));
+		System.out.printf("HyperLogLog: %,d distinct (exact %,d, error %.2f%%) in %d ms using %,d bytes%n",
+				distinct, exactDistinct, 100.0 * Math.abs(distinct - exactDistinct) / exactDistinct,
+				(System.nanoTime() - start) / 1_000_000, new HyperLogLog().memoryBytes());
+
+		start = System.nanoTime();
+		SpaceSaving<Integer> heavyHitters = LongStream.range(0, itemCount).parallel()
+				.mapToObj(StreamingCollectorsDemo::key)
+				.collect(StreamingCollectors.heavyHitters(1000, key -> key));
+		System.out.printf("Space-Saving (1000 counters) in %d ms%n", (System.nanoTime() - start) / 1_000_000);
+		for (HeavyHitter<Integer> hitter : heavyHitters.top(5)) {
+			long truth = exact[hitter.getKey()];
+			System.out.printf("  key %d: reported %,d (+-%,d), exact %,d%n", hitter.getKey(), hitter.getCount(),
+					hitter.getError(), truth);
+		}
+
+		start = System.nanoTime();
+		CountMinSketch sketch = LongStream.range(0, itemCount).parallel()
+				.mapToObj(StreamingCollectorsDemo::key)
+				.collect(StreamingCollectors.countMinSketch(4, 1 << 16, key -> key));
+		double relativeError = 0;
+		for (int key = 0; key < 100; key++) {
+			relativeError += exact[key] == 0 ? 0 : (double) (sketch.estimate(key) - exact[key]) / exact[key];
+		}
+		relativeError /= 100;
+		System.out.printf("Count-Min (4x65536) in %d ms using %,d bytes, mean overcount on 100 hottest keys %.3f%%%n",
+				(System.nanoTime() - start) / 1_000_000, sketch.memoryBytes(), relativeError * 100);
+
+		// HashMap node + boxed key + boxed count + table slot
+		System.out.printf("an exact groupingBy would hold %,d entries, roughly %,d bytes%n", exactDistinct, exactDistinct * 72);
+	}
+
+	private static int key(long i) {
+		double uniform = (Hashes.mix64(i) >>> 11) * 0x1.0p-53;
+		return (int) Math.pow(DISTINCT_KEYS, uniform) - 1;
+	}
+
+	private static int totalPrice(Order order) {
+		return order.getItems().stream().mapToInt(Item::getPrice).sum();
+	}
+}
@@ -0,0 +1,78 @@
+package com.streams;
+
+import com.java8.Order;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+// splits a list of orders so that both halves hold about the same number of items instead of
+// the same number of orders. weight[i] is the cumulative weight before order i where every order
+// weighs its item count plus one, so empty orders still count for something. null orders are
+// passed on as they are
+class WeightedOrderSpliterator implements Spliterator<Order> {
+	private final List<Order> orders;
+	private final long[] weight;
+	private int index;
+	private final int fence;
+
+	WeightedOrderSpliterator(List<Order> orders, long[] weight) {
+		this(orders, weight, 0, orders.size());
+	}
+
+	private WeightedOrderSpliterator(List<Order> orders, long[] weight, int index, int fence) {
+		this.orders = orders;
+		this.weight = weight;
+		this.index = index;
+		this.fence = fence;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super Order> action) {
+		if (index >= fence) {
+			return false;
+		}
+		action.accept(orders.get(index++));
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super Order> action) {
+		for (int i = index; i < fence; i++) {
+			action.accept(orders.get(i));
+		}
+		index = fence;
+	}
+
+	@Override
+	public Spliterator<Order> trySplit() {
+		if (fence - index < 2) {
+			return null;
+		}
+		long half = (weight[index] + weight[fence]) >>> 1;
+		int low = index + 1;
+		int high = fence - 1;
+		// first order starting at or after the weight midpoint, kept away from both ends
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (weight[mid] < half) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		WeightedOrderSpliterator prefixHalf = new WeightedOrderSpliterator(orders, weight, index, low);
+		index = low;
+		return prefixHalf;
+	}
+
+	@Override
+	public long estimateSize() {
+		return fence - index;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | SIZED | SUBSIZED;
+	}
+}
@@ -0,0 +1,53 @@
+package com.vector;
+
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+
+// entry point for the int column kernels. best() picks the Vector API implementation when it was
+// compiled (from src-vector, see VectorIntKernels) and the JVM was started with
+// --add-modules jdk.incubator.vector, and the scalar one otherwise:
+//
+//     int[] prices = orders.stream()
+//             .flatMap(order -> order.getItems().stream())
+//             .collect(ColumnKernels.toColumn(Item::getPrice));
+//     long total = ColumnKernels.best().sum(prices);
+public class ColumnKernels {
+    private static final IntKernels SCALAR = new ScalarIntKernels();
+    private static final IntKernels VECTOR = loadVectorKernels();
+
+    private ColumnKernels() {
+    }
+
+    public static IntKernels best() {
+        return VECTOR != null ? VECTOR : SCALAR;
+    }
+
+    public static IntKernels scalar() {
+        return SCALAR;
+    }
+
+    // null when the Vector API is not available in this JVM
+    public static IntKernels vector() {
+        return VECTOR;
+    }
+
+    public static <T> Collector<T, ?, int[]> toColumn(ToIntFunction<? super T> extractor) {
+        return Collector.of(
+                IntColumnBuilder::new,
+                (column, value) -> column.add(extractor.applyAsInt(value)),
+                IntColumnBuilder::addAll,
+                IntColumnBuilder::toArray);
+    }
+
+    // by name, nothing in src may refer to the Vector API or src would need the module to compile
+    private static IntKernels loadVectorKernels() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return (IntKernels) Class.forName("com.vector.VectorIntKernels").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.vector;
+
+import java.util.Arrays;
+
+// growable int[] used to collect a stream into a primitive column without boxing
+class IntColumnBuilder {
+    private int[] values = new int[16];
+    private int size;
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    IntColumnBuilder addAll(IntColumnBuilder other) {
+        if (size + other.size > values.length) {
+            values = Arrays.copyOf(values, Math.max(size + other.size, size * 2));
+        }
+        System.arraycopy(other.values, 0, values, size, other.size);
+        size += other.size;
+        return this;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
@@ -0,0 +1,20 @@
+package com.vector;
+
+// aggregation kernels over primitive int columns. sums are returned as long so they never overflow
+public interface IntKernels {
+    long sum(int[] values);
+
+    int min(int[] values);
+
+    int max(int[] values);
+
+    // sum of values[i] for every row whose filter[i] is in [low, high], pass the same array twice
+    // to filter a column on itself
+    long filteredSum(int[] values, int[] filter, int low, int high);
+
+    // counts[b] += number of values in [origin + b * bucketWidth, origin + (b + 1) * bucketWidth),
+    // values outside the buckets are ignored
+    void histogram(int[] values, int origin, int bucketWidth, long[] counts);
+
+    String name();
+}
@@ -0,0 +1,71 @@
+package com.vector;
+
+import com.java8.Item;
+import com.java8.OrderRepository;
+
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+// build src-vector as well and run with --add-modules jdk.incubator.vector to include the vector path.
+// column sizes are picked to fit L1 (16 KB), L2 (256 KB), L3 (8 MB) and main memory (256 MB)
+public class KernelBenchmark {
+    private static final int[] SIZES = {4 * 1024, 64 * 1024, 2 * 1024 * 1024, 64 * 1024 * 1024};
+    private static final long ELEMENTS_PER_RUN = 512L * 1024 * 1024;
+
+    public static void main(String[] args) {
+        OrderRepository orderRepository = new OrderRepository();
+        int[] prices = orderRepository.findAll().stream()
+                .flatMap(order -> order.getItems().stream())
+                .collect(ColumnKernels.toColumn(Item::getPrice));
+        IntKernels kernels = ColumnKernels.best();
+        System.out.println("Using " + kernels.name() + " kernels");
+        System.out.println("Total price: " + kernels.sum(prices) + ", min " + kernels.min(prices) + ", max " + kernels.max(prices)
+                + ", sum of prices in [150, 250]: " + kernels.filteredSum(prices, prices, 150, 250));
+
+        IntKernels[] paths = ColumnKernels.vector() == null
+                ? new IntKernels[]{ColumnKernels.scalar()}
+                : new IntKernels[]{ColumnKernels.scalar(), ColumnKernels.vector()};
+        Random random = new Random(7);
+        for (int size : SIZES) {
+            int[] values = new int[size];
+            int[] ids = new int[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = random.nextInt(1000);
+                ids[i] = i;
+            }
+            long[] counts = new long[64];
+            int repeats = (int) Math.max(1, ELEMENTS_PER_RUN / size);
+            for (IntKernels path : paths) {
+                long check = 0;
+                // warm up before timing
+                for (int i = 0; i < Math.min(repeats, 50); i++) {
+                    check += path.sum(values) + path.filteredSum(values, ids, 0, size / 2);
+                }
+                long sum = time(() -> path.sum(values), repeats);
+                long min = time(() -> path.min(values), repeats);
+                long filtered = time(() -> path.filteredSum(values, ids, size / 4, size / 2), repeats);
+                long histogram = time(() -> {
+                    path.histogram(values, 0, 16, counts);
+                    return counts[0];
+                }, repeats);
+                System.out.printf("%,11d ints %-16s sum %5.2f  min %5.2f  filteredSum %5.2f  histogram %5.2f  ns/element%s%n",
+                        size, path.name(), perElement(sum, repeats, size), perElement(min, repeats, size),
+                        perElement(filtered, repeats, size), perElement(histogram, repeats, size), check == 42 ? "!" : "");
+            }
+        }
+    }
+
+    private static long time(LongSupplier kernel, int repeats) {
+        long start = System.nanoTime();
+        long sink = 0;
+        for (int i = 0; i < repeats; i++) {
+            sink += kernel.getAsLong();
+        }
+        long elapsed = System.nanoTime() - start;
+        return sink == Long.MIN_VALUE ? elapsed + 1 : elapsed;
+    }
+
+    private static double perElement(long nanos, int repeats, int size) {
+        return (double) nanos / repeats / size;
+    }
+}
@@ -0,0 +1,120 @@
+package com.vector;
+
+// plain loops unrolled by four with independent accumulators, so the CPU can overlap the adds
+// and the JIT's own auto-vectorizer has an easy time
+public class ScalarIntKernels implements IntKernels {
+
+    @Override
+    public long sum(int[] values) {
+        long s0 = 0;
+        long s1 = 0;
+        long s2 = 0;
+        long s3 = 0;
+        int i = 0;
+        for (; i + 3 < values.length; i += 4) {
+            s0 += values[i];
+            s1 += values[i + 1];
+            s2 += values[i + 2];
+            s3 += values[i + 3];
+        }
+        for (; i < values.length; i++) {
+            s0 += values[i];
+        }
+        return s0 + s1 + s2 + s3;
+    }
+
+    @Override
+    public int min(int[] values) {
+        requireNotEmpty(values);
+        int m0 = Integer.MAX_VALUE;
+        int m1 = Integer.MAX_VALUE;
+        int m2 = Integer.MAX_VALUE;
+        int m3 = Integer.MAX_VALUE;
+        int i = 0;
+        for (; i + 3 < values.length; i += 4) {
+            m0 = Math.min(m0, values[i]);
+            m1 = Math.min(m1, values[i + 1]);
+            m2 = Math.min(m2, values[i + 2]);
+            m3 = Math.min(m3, values[i + 3]);
+        }
+        for (; i < values.length; i++) {
+            m0 = Math.min(m0, values[i]);
+        }
+        return Math.min(Math.min(m0, m1), Math.min(m2, m3));
+    }
+
+    @Override
+    public int max(int[] values) {
+        requireNotEmpty(values);
+        int m0 = Integer.MIN_VALUE;
+        int m1 = Integer.MIN_VALUE;
+        int m2 = Integer.MIN_VALUE;
+        int m3 = Integer.MIN_VALUE;
+        int i = 0;
+        for (; i + 3 < values.length; i += 4) {
+            m0 = Math.max(m0, values[i]);
+            m1 = Math.max(m1, values[i + 1]);
+            m2 = Math.max(m2, values[i + 2]);
+            m3 = Math.max(m3, values[i + 3]);
+        }
+        for (; i < values.length; i++) {
+            m0 = Math.max(m0, values[i]);
+        }
+        return Math.max(Math.max(m0, m1), Math.max(m2, m3));
+    }
+
+    @Override
+    public long filteredSum(int[] values, int[] filter, int low, int high) {
+        requireSameLength(values, filter);
+        long s0 = 0;
+        long s1 = 0;
+        int i = 0;
+        // branch free: the comparison becomes a 0 or -1 mask
+        for (; i + 1 < values.length; i += 2) {
+            s0 += values[i] & inRange(filter[i], low, high);
+            s1 += values[i + 1] & inRange(filter[i + 1], low, high);
+        }
+        for (; i < values.length; i++) {
+            s0 += values[i] & inRange(filter[i], low, high);
+        }
+        return s0 + s1;
+    }
+
+    @Override
+    public void histogram(int[] values, int origin, int bucketWidth, long[] counts) {
+        requirePositive(bucketWidth);
+        for (int value : values) {
+            long bucket = Math.floorDiv((long) value - origin, bucketWidth);
+            if (bucket >= 0 && bucket < counts.length) {
+                counts[(int) bucket]++;
+            }
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    private static long inRange(int value, int low, int high) {
+        return (value >= low && value <= high) ? -1L : 0L;
+    }
+
+    static void requireNotEmpty(int[] values) {
+        if (values.length == 0) {
+            throw new IllegalArgumentException("empty column has no min or max");
+        }
+    }
+
+    static void requireSameLength(int[] values, int[] filter) {
+        if (values.length != filter.length) {
+            throw new IllegalArgumentException("columns differ in length: " + values.length + " and " + filter.length);
+        }
+    }
+
+    static void requirePositive(int bucketWidth) {
+        if (bucketWidth < 1) {
+            throw new IllegalArgumentException("bucket width must be positive: " + bucketWidth);
+        }
+    }
+}